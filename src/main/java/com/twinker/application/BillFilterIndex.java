@@ -0,0 +1,186 @@
+package com.twinker.application;
+
+import com.twinker.domain.collection.BillCursor;
+import com.twinker.domain.collection.CompressedBitmap;
+import com.twinker.domain.collection.SaleEntry;
+import com.twinker.domain.entity.Bill;
+import com.twinker.domain.entity.Sale;
+import com.twinker.persistence.repository.BillRepository;
+import com.twinker.persistence.repository.SaleRepository;
+import com.twinker.persistence.repository.UnitOfWork;
+
+import java.util.*;
+
+/**
+ * Bitmap indexes over the bill listing, used to filter bills by several
+ * criteria at once.
+ * Every bill gets a position in the order it was indexed, oldest first, and
+ * each filter dimension maps its keys to the set of positions of matching
+ * bills.
+ *
+ * <p>
+ * The index keeps:
+ * <ul>
+ * <li>The bills by position, oldest first</li>
+ * <li>The bills of each client, keyed by client ID</li>
+ * <li>The bills containing each product, keyed by product ID</li>
+ * <li>The versions of the repositories it was built from</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * A combined filter is the intersection of the bitmaps of each dimension,
+ * and the matching bills come out of it in position order, which is the
+ * listing order reversed. Further dimensions are added by building another
+ * map of bitmaps from the bills.
+ * </p>
+ *
+ * <p>
+ * A single index is shared by the whole application. It is built from the
+ * stored bills and sales on first use. A confirmed bill, newer than every
+ * indexed one, takes the next position once its unit of work is committed,
+ * and only its own bits are set; the index is rebuilt if the bills or sales
+ * change in any other way.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.application.BillService
+ * @see com.twinker.domain.collection.CompressedBitmap
+ */
+class BillFilterIndex {
+    private static final BillFilterIndex shared = new BillFilterIndex();
+
+    private final BillRepository billRepository = new BillRepository();
+    private final SaleRepository saleRepository = new SaleRepository();
+
+    private final List<Bill> bills = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Map<String, CompressedBitmap> billsByClient = new HashMap<>();
+    private final Map<String, CompressedBitmap> billsByProduct = new HashMap<>();
+
+    private boolean built;
+    private long billsVersion;
+    private long salesVersion;
+
+    private BillFilterIndex() { }
+
+    /**
+     * Gets the index shared by the application.
+     *
+     * @return the shared index
+     */
+    static BillFilterIndex shared() {
+        return shared;
+    }
+
+    /**
+     * Adds a bill to the index once the unit of work that stores it is
+     * committed.
+     * The bill is only added if the index was current right before the
+     * commit, nothing else changed the bills or sales, and the bill is newer
+     * than every indexed one; otherwise the index is rebuilt on its next
+     * read.
+     *
+     * @param bill       the confirmed bill
+     * @param sales      the sale entries of the bill
+     * @param unitOfWork the unit of work that persists the bill
+     */
+    void record(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        unitOfWork.afterCommit(() -> committed(bill, sales, unitOfWork));
+    }
+
+    private synchronized void committed(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        long currentBills = unitOfWork.advance(billRepository, billsVersion);
+        long currentSales = unitOfWork.advance(saleRepository, salesVersion);
+        if (!built || currentBills < 0 || currentSales < 0) return;
+        if (!bills.isEmpty() && BillCursor.NEWEST_FIRST.compare(bill, bills.getLast()) > 0) return;
+
+        int position = add(bill);
+        for (SaleEntry sale : sales) {
+            addProduct(position, sale.getProductId());
+        }
+
+        billsVersion = currentBills;
+        salesVersion = currentSales;
+    }
+
+    /**
+     * Gets the bills matching every given filter.
+     *
+     * @param clientIds  the IDs of the clients whose bills to keep, or null
+     *                   to keep bills of any client
+     * @param productIds the IDs of the products a bill must contain, any of
+     *                   them, or null to keep bills with any product
+     * @return the matching bills, newest first
+     */
+    synchronized List<Bill> filter(Collection<String> clientIds, Collection<String> productIds) {
+        ensureBuilt();
+        CompressedBitmap selected = null;
+
+        if (clientIds != null) selected = union(billsByClient, clientIds);
+        if (productIds != null) {
+            CompressedBitmap withProducts = union(billsByProduct, productIds);
+            selected = selected == null ? withProducts : selected.and(withProducts);
+        }
+
+        if (selected == null) return new ArrayList<>(bills.reversed());
+
+        List<Bill> matching = new ArrayList<>(selected.cardinality());
+        selected.forEach(position -> matching.add(bills.get(position)));
+        return matching.reversed();
+    }
+
+    /**
+     * Builds the index from the stored bills and sales if it was never built
+     * or if either repository changed since.
+     */
+    private void ensureBuilt() {
+        long currentBills = billRepository.version();
+        long currentSales = saleRepository.version();
+        if (built && currentBills == billsVersion && currentSales == salesVersion) return;
+
+        bills.clear();
+        positions.clear();
+        billsByClient.clear();
+        billsByProduct.clear();
+
+        List<Bill> stored = billRepository.getAll();
+        stored.sort(BillCursor.NEWEST_FIRST.reversed());
+        stored.forEach(this::add);
+
+        for (Sale sale : saleRepository.getAll()) {
+            Integer position = positions.get(sale.getBillId());
+            if (position != null) addProduct(position, sale.getProductId());
+        }
+
+        built = true;
+        billsVersion = currentBills;
+        salesVersion = currentSales;
+    }
+
+    /**
+     * Gives a bill the next position and sets its client bit.
+     *
+     * @return the position of the bill
+     */
+    private int add(Bill bill) {
+        int position = bills.size();
+        bills.add(bill);
+        positions.put(bill.getId(), position);
+        billsByClient.computeIfAbsent(bill.getClientId(), _ -> new CompressedBitmap()).add(position);
+        return position;
+    }
+
+    private void addProduct(int position, String productId) {
+        billsByProduct.computeIfAbsent(productId, _ -> new CompressedBitmap()).add(position);
+    }
+
+    private static CompressedBitmap union(Map<String, CompressedBitmap> bitmaps, Collection<String> keys) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (String key : keys) {
+            CompressedBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) result = result.or(bitmap);
+        }
+        return result;
+    }
+}
@@ -1,9 +1,11 @@
 package com.twinker.application;
 
+import com.twinker.domain.collection.BillCursor;
 import com.twinker.domain.collection.BillEntry;
 import com.twinker.domain.collection.SaleEntry;
 import com.twinker.domain.entity.Bill;
 import com.twinker.domain.entity.Client;
+import com.twinker.domain.entity.Entity;
 import com.twinker.domain.entity.Product;
 import com.twinker.domain.entity.Sale;
 import com.twinker.persistence.repository.BillRepository;
@@ -11,8 +13,8 @@ import com.twinker.persistence.repository.ClientRepository;
 import com.twinker.persistence.repository.ProductRepository;
 import com.twinker.persistence.repository.SaleRepository;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Service class for managing bill records in the Twinker application.
@@ -22,8 +24,8 @@ import java.util.*;
  * <p>
  * The service handles:
  * <ul>
- * <li>Bill retrieval and sorting</li>
- * <li>Bill filtering by client and product</li>
+ * <li>Paginated bill listing, newest first</li>
+ * <li>Bill filtering by client and product through bitmap indexes</li>
  * <li>Sale entry aggregation</li>
  * <li>Client and product association</li>
  * </ul>
@@ -52,60 +54,84 @@ public class BillService {
     }
 
     /**
-     * Retrieves all bills sorted by date in descending order.
-     * Includes associated sales, products, and client information.
+     * Retrieves a page of bills sorted by date in descending order.
+     * Includes associated sales, products, and client information, looked up
+     * only for the bills of the page.
      *
-     * @return a list of bill entries with complete information
+     * @param before the cursor returned with the previous page, or null for
+     *               the first page
+     * @param limit  the maximum number of bills in the page
+     * @return the bill entries of the page, newest first
      */
-    public List<BillEntry> getAllBillsSorted() {
-        List<Bill> bills = billRepository.getAll();
-        List<BillEntry> billEntryList = new ArrayList<>();
+    public List<BillEntry> getBillsPage(BillCursor before, int limit) {
+        return toEntries(billRepository.getBillsPage(before, limit));
+    }
+
+    /**
+     * Filters bills based on client name and product name.
+     * Either filter can be null to skip that criteria.
+     *
+     * <p>
+     * Names are resolved to client and product IDs, and the bills matching
+     * each filter are looked up in the shared bitmap indexes and
+     * intersected.
+     * </p>
+     *
+     * @param clientName  the name of the client to filter by, or null
+     * @param productName the name of the product to filter by, or null
+     * @return a filtered list of bill entries, sorted by date in descending order
+     */
+    public List<BillEntry> filterBills(String clientName, String productName) {
+        List<String> clientIds = clientName == null ? null
+                : idsByName(clientRepository.getAll(), Client::getName, clientName);
+        List<String> productIds = productName == null ? null
+                : idsByName(productRepository.getAll(), Product::getName, productName);
+
+        return toEntries(BillFilterIndex.shared().filter(clientIds, productIds));
+    }
+
+    /**
+     * Assembles the entries of a list of bills, looking up their sales,
+     * products and client by ID.
+     *
+     * @param bills the bills
+     * @return the bill entries, in the same order
+     */
+    private List<BillEntry> toEntries(List<Bill> bills) {
+        List<BillEntry> billEntryList = new ArrayList<>(bills.size());
         Client nullClient = new Client();
         Product nullProduct = new Product();
 
         for (Bill bill : bills) {
             List<Sale> sales = saleRepository.getSalesByBillId(bill.getId());
-            List<SaleEntry> saleEntries = new ArrayList<>();
+            List<SaleEntry> saleEntries = new ArrayList<>(sales.size());
 
             for (Sale sale : sales) {
-                Optional<Product> product = productRepository.getById(sale.getProductId());
-
-                SaleEntry saleEntry = product.map(value -> new SaleEntry(sale, value))
-                        .orElseGet(() -> new SaleEntry(sale, nullProduct));
-
-                saleEntries.add(saleEntry);
+                Product product = productRepository.getById(sale.getProductId()).orElse(nullProduct);
+                saleEntries.add(new SaleEntry(sale, product));
             }
 
-            Optional<Client> client = clientRepository.getById(bill.getClientId());
-
-            BillEntry billEntry = client.map(value -> new BillEntry(bill, saleEntries, value))
-                    .orElseGet(() -> new BillEntry(bill, saleEntries, nullClient));
-
-            billEntryList.add(billEntry);
+            Client client = clientRepository.getById(bill.getClientId()).orElse(nullClient);
+            billEntryList.add(new BillEntry(bill, saleEntries, client));
         }
 
-        return billEntryList.stream().sorted((b1, b2) -> {
-            LocalDateTime d1 = LocalDateTime.parse(b1.getDate());
-            LocalDateTime d2 = LocalDateTime.parse(b2.getDate());
-            return d2.compareTo(d1);
-        }).toList();
+        return billEntryList;
     }
 
     /**
-     * Filters bills based on client name and product name.
-     * Either filter can be null to skip that criteria.
+     * Collects the IDs of the entities with a given name.
      *
-     * @param clientName  the name of the client to filter by, or null
-     * @param productName the name of the product to filter by, or null
-     * @return a filtered list of bill entries
+     * @param <T>      the type of entity
+     * @param entities the entities to search
+     * @param name     the function reading the name of an entity
+     * @param value    the name to look for
+     * @return the IDs of the matching entities
      */
-    public List<BillEntry> filterBills(String clientName, String productName) {
-        return getAllBillsSorted().stream()
-                .filter(billEntry -> clientName == null
-                        || clientName.equals(billEntry.getClientName()))
-                .filter(billEntry -> productName == null
-                        || billEntry.saleEntries().stream()
-                        .anyMatch(s -> productName.equals(s.getProductName())))
-                .toList();
+    private static <T extends Entity> List<String> idsByName(List<T> entities, Function<T, String> name, String value) {
+        List<String> ids = new ArrayList<>();
+        for (T entity : entities) {
+            if (value.equals(name.apply(entity))) ids.add(entity.getId());
+        }
+        return ids;
     }
 }
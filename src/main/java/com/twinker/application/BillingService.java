@@ -7,6 +7,7 @@ import com.twinker.domain.entity.*;
 import com.twinker.persistence.repository.BillRepository;
 import com.twinker.persistence.repository.InventoryRepository;
 import com.twinker.persistence.repository.SaleRepository;
+import com.twinker.persistence.repository.UnitOfWork;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
@@ -26,6 +27,7 @@ import java.util.Optional;
  * <li>Bill creation and confirmation</li>
  * <li>Sale entry tracking</li>
  * <li>Inventory level updates</li>
+ * <li>Daily sales rollup updates</li>
  * <li>Client association with bills</li>
  * </ul>
  * </p>
@@ -41,6 +43,7 @@ public class BillingService {
     private final BillRepository billRepository;
     private final InventoryRepository inventoryRepository;
     private final SaleRepository saleRepository;
+    private final SalesRollupService salesRollupService;
 
     /**
      * Constructs a new BillingService.
@@ -52,6 +55,7 @@ public class BillingService {
         this.billRepository = new BillRepository();
         this.inventoryRepository = new InventoryRepository();
         this.saleRepository = new SaleRepository();
+        this.salesRollupService = new SalesRollupService();
     }
 
     /**
@@ -128,18 +132,23 @@ public class BillingService {
 
     /**
      * Confirms and finalizes the current bill.
-     * Updates inventory levels, saves the bill and its sales,
-     * and creates a new empty bill.
+     * Updates inventory levels and the rollup of the day, saves the bill and
+     * its sales in a single unit of work, staging changed copies so the
+     * stored objects only change once the unit is committed, adds them to the revenue index, the
+     * sales cube, the bill filter index and the sales columns once the unit
+     * is committed, and creates a new empty bill.
      */
     public void confirmBill() {
+        UnitOfWork unitOfWork = new UnitOfWork();
+
         Bill bill = this.billList.getBill();
         bill.setClientId(client != null ? client.getId() : null);
         bill.setDate(LocalDateTime.now().toString());
         bill.setAmount(this.billList.getAmount());
-        billRepository.insert(bill);
+        unitOfWork.insert(billRepository, bill);
 
         List<SaleEntry> saleEntries = this.billList.getSales();
-        saleRepository.registerSales(saleEntries);
+        saleRepository.registerSales(saleEntries, unitOfWork);
 
         for (SaleEntry saleEntry : saleEntries) {
             int quantity = saleEntry.getQuantity();
@@ -147,11 +156,18 @@ public class BillingService {
 
             if (inventoryOptional.isPresent()) {
                 Inventory inventory = inventoryOptional.get();
-                inventory.setStock(inventory.getStock() - quantity);
-                inventoryRepository.update(inventory);
+                unitOfWork.update(inventoryRepository,
+                        new Inventory(inventory.getId(), inventory.getProductId(), inventory.getStock() - quantity));
             }
         }
 
+        salesRollupService.record(bill, saleEntries, unitOfWork);
+        billRepository.recordRevenue(bill, unitOfWork);
+        SalesCube.shared().record(bill, saleEntries, unitOfWork);
+        BillFilterIndex.shared().record(bill, saleEntries, unitOfWork);
+        SalesColumns.shared().record(bill, saleEntries, unitOfWork);
+
+        unitOfWork.commit();
         removeAll();
     }
 
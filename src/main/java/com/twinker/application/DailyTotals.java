@@ -0,0 +1,148 @@
+package com.twinker.application;
+
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.entity.Bill;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sales totals of a run of consecutive days, kept in primitive arrays
+ * indexed by the day's distance from the first day.
+ *
+ * <p>
+ * Bills are aggregated:
+ * <ul>
+ * <li>On the calling thread, while there are fewer than
+ * {@code statistics.parallel.threshold} of them</li>
+ * <li>Otherwise on the common {@link ForkJoinPool}, split into a few chunks
+ * per thread of the pool, each summed into its own arrays, which are then
+ * merged pairwise</li>
+ * </ul>
+ * The threshold keeps small shops on a single thread, where splitting the
+ * work would cost more than it saves. The number of chunks depends only on
+ * the size of the pool, so the arrays allocated grow with the days covered
+ * but not with the number of bills.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.application.SalesRollupService
+ */
+final class DailyTotals {
+    private static final int PARALLEL_THRESHOLD = Math.max(1, DataConfig.getInt("statistics.parallel.threshold", 20000));
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    final long firstDay;
+    final double[] amount;
+    final int[] tickets;
+    final int[] units;
+
+    private DailyTotals(long firstDay, int days) {
+        this.firstDay = firstDay;
+        this.amount = new double[days];
+        this.tickets = new int[days];
+        this.units = new int[days];
+    }
+
+    /**
+     * Aggregates bills into totals by day.
+     *
+     * @param bills       the bills to aggregate, all of them with a date
+     * @param unitsByBill the number of units sold by bill ID
+     * @return the totals of every day from the first bill to the last
+     */
+    static DailyTotals aggregate(List<Bill> bills, Map<String, Integer> unitsByBill) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Bill bill : bills) {
+            long day = bill.getDateTime().toLocalDate().toEpochDay();
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        if (bills.isEmpty()) return new DailyTotals(0, 0);
+
+        int days = (int) (last - first + 1);
+        if (bills.size() < PARALLEL_THRESHOLD) {
+            return new AggregateTask(bills, unitsByBill, 0, bills.size(), bills.size(), first, days).compute();
+        }
+
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = Math.max(1, (bills.size() + chunks - 1) / chunks);
+        return ForkJoinPool.commonPool().invoke(
+                new AggregateTask(bills, unitsByBill, 0, bills.size(), chunkSize, first, days));
+    }
+
+    /**
+     * Gets the number of days covered by the totals.
+     *
+     * @return the number of days
+     */
+    int days() {
+        return amount.length;
+    }
+
+    private void add(Bill bill, Map<String, Integer> unitsByBill) {
+        int day = (int) (bill.getDateTime().toLocalDate().toEpochDay() - firstDay);
+        amount[day] += bill.getAmount();
+        tickets[day]++;
+        units[day] += unitsByBill.getOrDefault(bill.getId(), 0);
+    }
+
+    private DailyTotals merge(DailyTotals other) {
+        for (int day = 0; day < amount.length; day++) {
+            amount[day] += other.amount[day];
+            tickets[day] += other.tickets[day];
+            units[day] += other.units[day];
+        }
+        return this;
+    }
+
+    /**
+     * Fork-join task that aggregates a range of the bills.
+     * Ranges with more bills than the chunk size are split in halves.
+     */
+    private static final class AggregateTask extends RecursiveTask<DailyTotals> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Bill> bills;
+        private final transient Map<String, Integer> unitsByBill;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final long firstDay;
+        private final int days;
+
+        private AggregateTask(List<Bill> bills, Map<String, Integer> unitsByBill, int from, int to, int chunkSize,
+                              long firstDay, int days) {
+            this.bills = bills;
+            this.unitsByBill = unitsByBill;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.firstDay = firstDay;
+            this.days = days;
+        }
+
+        @Override
+        protected DailyTotals compute() {
+            if (to - from <= chunkSize) {
+                DailyTotals totals = new DailyTotals(firstDay, days);
+                for (int i = from; i < to; i++) {
+                    totals.add(bills.get(i), unitsByBill);
+                }
+                return totals;
+            }
+
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(bills, unitsByBill, from, middle, chunkSize, firstDay, days);
+            AggregateTask right = new AggregateTask(bills, unitsByBill, middle, to, chunkSize, firstDay, days);
+            left.fork();
+            DailyTotals rightTotals = right.compute();
+            return left.join().merge(rightTotals);
+        }
+    }
+}
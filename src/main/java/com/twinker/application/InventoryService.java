@@ -99,10 +99,28 @@ public class InventoryService {
      */
     public void addEntry(String name, double price, String description, int quantity) {
         Product product = new Product(name, price, description);
-        productRepository.insert(product);
-
         Inventory inventory = new Inventory(product.getId(), quantity);
-        inventoryRepository.insert(inventory);
+
+        addEntries(List.of(new InventoryEntry(product, inventory)));
+    }
+
+    /**
+     * Adds several products to the catalog with their initial inventory.
+     * Products and inventory entries are each persisted with a single write.
+     *
+     * @param entries the inventory entries to add, each with its product
+     */
+    public void addEntries(List<InventoryEntry> entries) {
+        List<Product> products = new ArrayList<>(entries.size());
+        List<Inventory> inventory = new ArrayList<>(entries.size());
+
+        for (InventoryEntry entry : entries) {
+            products.add(entry.product());
+            inventory.add(entry.inventory());
+        }
+
+        productRepository.insertAll(products);
+        inventoryRepository.insertAll(inventory);
     }
 
     /**
@@ -0,0 +1,227 @@
+package com.twinker.application;
+
+import com.twinker.domain.collection.SaleEntry;
+import com.twinker.domain.entity.Bill;
+import com.twinker.domain.entity.Sale;
+import com.twinker.persistence.repository.BillRepository;
+import com.twinker.persistence.repository.SaleRepository;
+import com.twinker.persistence.repository.UnitOfWork;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Columnar, in-memory copy of the sales, sorted by day.
+ * Each sale line is stored as one position in primitive arrays of its day
+ * and quantity, so the sales of a period are a single contiguous range and
+ * unit totals are tight loops over plain arrays.
+ *
+ * <p>
+ * Totals are computed by {@link Kernels}:
+ * <ul>
+ * <li>{@link VectorKernels}, using the incubating Vector API, when the JVM
+ * runs with {@code --add-modules jdk.incubator.vector}</li>
+ * <li>A scalar fallback otherwise</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * A single copy is shared by the whole application. It is built from the
+ * stored bills and sales on first use. The lines of a confirmed bill are
+ * appended once its unit of work is committed, as long as the bill is not
+ * older than the last line; the copy is rebuilt if the bills or sales
+ * change in any other way.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.application.StatisticsService
+ * @see com.twinker.application.VectorKernels
+ */
+final class SalesColumns {
+    private static final Logger logger = Logger.getLogger(SalesColumns.class.getName());
+    private static final Kernels kernels = loadKernels();
+    private static final SalesColumns shared = new SalesColumns();
+
+    private final BillRepository billRepository = new BillRepository();
+    private final SaleRepository saleRepository = new SaleRepository();
+
+    private int[] day = new int[64];
+    private int[] quantity = new int[64];
+    private int size;
+
+    private boolean built;
+    private long billsVersion;
+    private long salesVersion;
+
+    private SalesColumns() { }
+
+    /**
+     * Gets the columns shared by the application.
+     *
+     * @return the shared columns
+     */
+    static SalesColumns shared() {
+        return shared;
+    }
+
+    /**
+     * Appends the sale lines of a bill to the columns once the unit of work
+     * that stores it is committed.
+     * The lines are only appended if the columns were current right before
+     * the commit, nothing else changed the bills or sales, and the bill is
+     * not older than the last line; otherwise the columns are rebuilt on
+     * their next read.
+     *
+     * @param bill       the confirmed bill
+     * @param sales      the sale entries of the bill
+     * @param unitOfWork the unit of work that persists the bill
+     */
+    void record(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        unitOfWork.afterCommit(() -> committed(bill, sales, unitOfWork));
+    }
+
+    private synchronized void committed(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        long currentBills = unitOfWork.advance(billRepository, billsVersion);
+        long currentSales = unitOfWork.advance(saleRepository, salesVersion);
+        if (!built || currentBills < 0 || currentSales < 0 || bill.getDateTime() == null) return;
+
+        int billDay = (int) bill.getDateTime().toLocalDate().toEpochDay();
+        if (size > 0 && billDay < day[size - 1]) return;
+
+        for (SaleEntry sale : sales) {
+            add(billDay, sale.getQuantity());
+        }
+
+        billsVersion = currentBills;
+        salesVersion = currentSales;
+    }
+
+    /**
+     * Sums the units of the lines of a period.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the units sold in the period
+     */
+    synchronized long units(LocalDate from, LocalDate to) {
+        ensureBuilt();
+        return kernels.units(quantity, start(from), start(to.plusDays(1)));
+    }
+
+    /**
+     * Builds the columns from the stored bills and sales, sorted by day, if
+     * they were never built or if either repository changed since. Lines of
+     * bills that are missing or have no date are left out.
+     */
+    private void ensureBuilt() {
+        long currentBills = billRepository.version();
+        long currentSales = saleRepository.version();
+        if (built && currentBills == billsVersion && currentSales == salesVersion) return;
+
+        Map<String, Integer> dayByBill = new HashMap<>();
+        for (Bill bill : billRepository.getAll()) {
+            if (bill.getDateTime() != null) {
+                dayByBill.put(bill.getId(), (int) bill.getDateTime().toLocalDate().toEpochDay());
+            }
+        }
+
+        List<Sale> lines = new ArrayList<>();
+        List<Sale> sales = saleRepository.getAll();
+        long[] order = new long[sales.size()];
+        for (Sale sale : sales) {
+            Integer saleDay = dayByBill.get(sale.getBillId());
+            if (saleDay == null) continue;
+
+            order[lines.size()] = ((long) saleDay << 32) | lines.size();
+            lines.add(sale);
+        }
+        order = Arrays.copyOf(order, lines.size());
+        Arrays.sort(order);
+
+        size = 0;
+        for (long line : order) {
+            Sale sale = lines.get((int) line);
+            add((int) (line >> 32), sale.getQuantity());
+        }
+
+        built = true;
+        billsVersion = currentBills;
+        salesVersion = currentSales;
+    }
+
+    /**
+     * Appends a line at the end of the columns, growing them if needed.
+     */
+    private void add(int lineDay, int lineQuantity) {
+        if (size == day.length) {
+            int capacity = size * 2;
+            day = Arrays.copyOf(day, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+        }
+
+        day[size] = lineDay;
+        quantity[size] = lineQuantity;
+        size++;
+    }
+
+    /**
+     * Finds the position of the first line on or after a day.
+     */
+    private int start(LocalDate date) {
+        long key = date.toEpochDay();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (day[middle] < key) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Picks the vector kernels if the Vector API module is present and
+     * usable on this machine, and the scalar ones otherwise.
+     */
+    static Kernels loadKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorKernels();
+            } catch (LinkageError | RuntimeException e) {
+                logger.log(Level.WARNING, "Vector kernels unavailable, using scalar loops: " + e);
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    /**
+     * Aggregation loops over a range of the columns.
+     */
+    interface Kernels {
+        /**
+         * Sums the quantities of a range.
+         *
+         * @param quantity the quantity column
+         * @param from     the first position, inclusive
+         * @param to       the last position, exclusive
+         * @return the units of the range
+         */
+        long units(int[] quantity, int from, int to);
+    }
+
+    /**
+     * Plain loops, used when the Vector API is not available.
+     */
+    static final class ScalarKernels implements Kernels {
+        @Override
+        public long units(int[] quantity, int from, int to) {
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += quantity[i];
+            }
+            return sum;
+        }
+    }
+}
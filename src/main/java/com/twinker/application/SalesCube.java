@@ -0,0 +1,291 @@
+package com.twinker.application;
+
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.collection.SaleEntry;
+import com.twinker.domain.collection.TopK;
+import com.twinker.domain.entity.Bill;
+import com.twinker.domain.entity.Sale;
+import com.twinker.persistence.repository.BillRepository;
+import com.twinker.persistence.repository.SaleRepository;
+import com.twinker.persistence.repository.UnitOfWork;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.*;
+
+/**
+ * Pre-aggregated, in-memory cube of sales by day, product and client.
+ * Every sale line is added to the cell of its day, product and client, so
+ * statistics over any date range read one cell per combination sold instead
+ * of every bill and sale.
+ *
+ * <p>
+ * The cube keeps:
+ * <ul>
+ * <li>Dictionaries turning product and client IDs into small integers</li>
+ * <li>The cells as parallel primitive arrays: day, product, client, units
+ * and revenue</li>
+ * <li>The cells of each day, so a date range only visits its own days</li>
+ * <li>A bounded {@link TopK} summary of the best products of each year,
+ * an approximate ranking over a window too long to total cell by cell</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * A single cube is shared by the whole application. It is built from the
+ * stored bills and sales on first use, updated incrementally after each
+ * confirmed bill is committed, and rebuilt if the bills or sales change in
+ * any other way.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.application.StatisticsService
+ * @see com.twinker.application.BillingService
+ */
+class SalesCube {
+    private static final SalesCube shared = new SalesCube();
+    private static final int TOP_CAPACITY = DataConfig.getInt("statistics.topk.capacity", 1000);
+
+    private final BillRepository billRepository = new BillRepository();
+    private final SaleRepository saleRepository = new SaleRepository();
+
+    private final Map<String, Integer> productIndex = new HashMap<>();
+    private final List<String> productIds = new ArrayList<>();
+    private final Map<String, Integer> clientIndex = new HashMap<>();
+    private final List<String> clientIds = new ArrayList<>();
+
+    private final Map<CellKey, Integer> cellIndex = new HashMap<>();
+    private final NavigableMap<Integer, CellList> cellsByDay = new TreeMap<>();
+    private int[] cellProduct = new int[64];
+    private int[] cellClient = new int[64];
+    private int[] cellUnits = new int[64];
+    private double[] cellRevenue = new double[64];
+    private int cellCount;
+
+    private final Map<Year, TopK<Integer>> topProducts = new HashMap<>();
+
+    private boolean built;
+    private long billsVersion;
+    private long salesVersion;
+
+    private SalesCube() { }
+
+    /**
+     * Gets the cube shared by the application.
+     *
+     * @return the shared cube
+     */
+    static SalesCube shared() {
+        return shared;
+    }
+
+    /**
+     * Adds the sale lines of a bill to the cube once the unit of work that
+     * stores it is committed.
+     * The lines are only added if the cube was current right before the
+     * commit and nothing else changed the bills or sales; otherwise the cube
+     * is rebuilt from the repositories on its next read.
+     *
+     * @param bill       the confirmed bill
+     * @param sales      the sale entries of the bill
+     * @param unitOfWork the unit of work that persists the bill
+     */
+    void record(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        unitOfWork.afterCommit(() -> committed(bill, sales, unitOfWork));
+    }
+
+    private synchronized void committed(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        long currentBills = unitOfWork.advance(billRepository, billsVersion);
+        long currentSales = unitOfWork.advance(saleRepository, salesVersion);
+        if (!built || currentBills < 0 || currentSales < 0) return;
+
+        int day = (int) bill.getDateTime().toLocalDate().toEpochDay();
+        int client = clientOf(bill.getClientId());
+        for (SaleEntry sale : sales) {
+            add(day, productOf(sale.getProductId()), client, sale.getQuantity(),
+                    sale.getQuantity() * sale.getUnitPrice());
+        }
+
+        billsVersion = currentBills;
+        salesVersion = currentSales;
+    }
+
+    /**
+     * Sums the units sold of each product in a date range.
+     *
+     * @param from the first day of the range
+     * @param to   the last day of the range
+     * @return the units sold by product ID, for products with sales
+     */
+    synchronized Map<String, Integer> unitsByProduct(LocalDate from, LocalDate to) {
+        ensureBuilt();
+        int[] units = new int[productIds.size()];
+        boolean[] sold = new boolean[productIds.size()];
+        for (CellList cells : range(from, to)) {
+            for (int i = 0; i < cells.size; i++) {
+                int cell = cells.ids[i];
+                units[cellProduct[cell]] += cellUnits[cell];
+                sold[cellProduct[cell]] = true;
+            }
+        }
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int product = 0; product < units.length; product++) {
+            if (sold[product]) result.put(productIds.get(product), units[product]);
+        }
+        return result;
+    }
+
+    /**
+     * Sums the revenue of each client in a date range.
+     *
+     * @param from the first day of the range
+     * @param to   the last day of the range
+     * @return the revenue by client ID, for clients with sales; bills without
+     * a client are grouped under a null key
+     */
+    synchronized Map<String, Double> revenueByClient(LocalDate from, LocalDate to) {
+        ensureBuilt();
+        double[] revenue = new double[clientIds.size()];
+        boolean[] sold = new boolean[clientIds.size()];
+        for (CellList cells : range(from, to)) {
+            for (int i = 0; i < cells.size; i++) {
+                int cell = cells.ids[i];
+                revenue[cellClient[cell]] += cellRevenue[cell];
+                sold[cellClient[cell]] = true;
+            }
+        }
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int client = 0; client < revenue.length; client++) {
+            if (sold[client]) result.put(clientIds.get(client), revenue[client]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the best-selling products of a year by units, from the year's
+     * streaming summary. The ranking and the units are approximate once
+     * more products were sold in the year than the summary has counters.
+     *
+     * @param year the year
+     * @param n    the maximum number of products
+     * @return the estimated units sold by product ID, best first
+     */
+    synchronized Map<String, Integer> topProducts(Year year, int n) {
+        ensureBuilt();
+        TopK<Integer> summary = topProducts.get(year);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (summary == null) return result;
+
+        for (TopK.Entry<Integer> entry : summary.top(n)) {
+            result.put(productIds.get(entry.key()), (int) entry.count());
+        }
+        return result;
+    }
+
+    /**
+     * Builds the cube from the stored bills and sales if it was never built
+     * or if either repository changed since.
+     */
+    private void ensureBuilt() {
+        long currentBills = billRepository.version();
+        long currentSales = saleRepository.version();
+        if (built && currentBills == billsVersion && currentSales == salesVersion) return;
+
+        productIndex.clear();
+        productIds.clear();
+        clientIndex.clear();
+        clientIds.clear();
+        cellIndex.clear();
+        cellsByDay.clear();
+        cellCount = 0;
+        topProducts.clear();
+
+        Map<String, Bill> bills = new HashMap<>();
+        for (Bill bill : billRepository.getAll()) {
+            if (bill.getDateTime() != null) bills.put(bill.getId(), bill);
+        }
+        for (Sale sale : saleRepository.getAll()) {
+            Bill bill = bills.get(sale.getBillId());
+            if (bill == null) continue;
+
+            add((int) bill.getDateTime().toLocalDate().toEpochDay(), productOf(sale.getProductId()),
+                    clientOf(bill.getClientId()), sale.getQuantity(), sale.getQuantity() * sale.getUnitPrice());
+        }
+
+        built = true;
+        billsVersion = currentBills;
+        salesVersion = currentSales;
+    }
+
+    /**
+     * Adds a sale line to its cell, creating the cell if needed, and to the
+     * summary of its year.
+     */
+    private void add(int day, int product, int client, int units, double revenue) {
+        CellKey key = new CellKey(day, product, client);
+        Integer cell = cellIndex.get(key);
+
+        if (cell == null) {
+            cell = cellCount++;
+            if (cell == cellUnits.length) grow();
+
+            cellProduct[cell] = product;
+            cellClient[cell] = client;
+            cellIndex.put(key, cell);
+            cellsByDay.computeIfAbsent(day, _ -> new CellList()).add(cell);
+        }
+
+        cellUnits[cell] += units;
+        cellRevenue[cell] += revenue;
+
+        Year year = Year.from(LocalDate.ofEpochDay(day));
+        topProducts.computeIfAbsent(year, _ -> new TopK<>(TOP_CAPACITY)).add(product, units);
+    }
+
+    private void grow() {
+        int capacity = cellUnits.length * 2;
+        cellProduct = Arrays.copyOf(cellProduct, capacity);
+        cellClient = Arrays.copyOf(cellClient, capacity);
+        cellUnits = Arrays.copyOf(cellUnits, capacity);
+        cellRevenue = Arrays.copyOf(cellRevenue, capacity);
+    }
+
+    private Collection<CellList> range(LocalDate from, LocalDate to) {
+        return cellsByDay.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true).values();
+    }
+
+    private int productOf(String productId) {
+        return productIndex.computeIfAbsent(productId, id -> {
+            productIds.add(id);
+            return productIds.size() - 1;
+        });
+    }
+
+    private int clientOf(String clientId) {
+        return clientIndex.computeIfAbsent(clientId, id -> {
+            clientIds.add(id);
+            return clientIds.size() - 1;
+        });
+    }
+
+    /**
+     * Coordinates of a cell, so every combination of day, product and
+     * client gets its own cell however many products and clients there are.
+     */
+    private record CellKey(int day, int product, int client) { }
+
+    /**
+     * Growable list of the cells of one day.
+     */
+    private static final class CellList {
+        private int[] ids = new int[8];
+        private int size;
+
+        private void add(int cell) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = cell;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.twinker.application;
+
+import com.twinker.domain.collection.HyperLogLog;
+import com.twinker.domain.collection.SaleEntry;
+import com.twinker.domain.entity.Bill;
+import com.twinker.domain.entity.DailySales;
+import com.twinker.domain.entity.Sale;
+import com.twinker.persistence.repository.BillRepository;
+import com.twinker.persistence.repository.DailySalesRepository;
+import com.twinker.persistence.repository.SaleRepository;
+import com.twinker.persistence.repository.UnitOfWork;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Service class for maintaining the daily sales rollups in the Twinker
+ * application.
+ * This class keeps one {@link DailySales} record per day with the totals of
+ * the bills confirmed that day, so period statistics are computed from one
+ * record per day instead of from every bill.
+ *
+ * <p>
+ * The service handles:
+ * <ul>
+ * <li>Adding a confirmed bill to the rollup of its day, in the same unit of
+ * work as the bill</li>
+ * <li>Retrieving the rollups of a period</li>
+ * <li>Estimating the distinct clients of a period by merging the client
+ * sketches of its days</li>
+ * <li>Rebuilding every rollup from the stored bills and sales</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The rollups are checked against the bills before they are read, whenever
+ * the bills or the rollups changed other than through a commit of
+ * {@link #record(Bill, List, UnitOfWork)}, including after a restart. The
+ * number of tickets and the amount of each day are compared with the
+ * revenue index of the bills, and the rollups are rebuilt from history if
+ * any of them differs.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.entity.DailySales
+ * @see com.twinker.application.StatisticsService
+ * @see com.twinker.application.BillingService
+ */
+public class SalesRollupService {
+    private static final Object checkLock = new Object();
+    private static long rollupsVersion = -1;
+    private static long billsVersion = -1;
+
+    private final DailySalesRepository dailySalesRepository;
+    private final BillRepository billRepository;
+    private final SaleRepository saleRepository;
+
+    /**
+     * Constructs a new SalesRollupService.
+     * Initializes the required repositories for rollup maintenance.
+     */
+    public SalesRollupService() {
+        dailySalesRepository = new DailySalesRepository();
+        billRepository = new BillRepository();
+        saleRepository = new SaleRepository();
+    }
+
+    /**
+     * Stages the addition of a bill to the rollup of its day.
+     * A copy of the stored rollup is changed and persisted when the unit of
+     * work is committed, so the stored one never holds uncommitted totals.
+     *
+     * @param bill       the confirmed bill
+     * @param sales      the sale entries of the bill
+     * @param unitOfWork the unit of work that persists the bill
+     */
+    public void record(Bill bill, List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        int units = 0;
+        for (SaleEntry sale : sales) {
+            units += sale.getQuantity();
+        }
+
+        LocalDate day = bill.getDateTime().toLocalDate();
+        Optional<DailySales> stored = dailySalesRepository.getById(day.toString());
+        DailySales dailySales = stored.map(DailySales::new).orElseGet(() -> new DailySales(day));
+        dailySales.addTicket(bill.getAmount(), units);
+        dailySales.addClient(bill.getClientId());
+
+        if (stored.isPresent()) {
+            unitOfWork.update(dailySalesRepository, dailySales);
+        } else {
+            unitOfWork.insert(dailySalesRepository, dailySales);
+        }
+
+        unitOfWork.afterCommit(() -> {
+            synchronized (checkLock) {
+                long currentRollups = unitOfWork.advance(dailySalesRepository, rollupsVersion);
+                long currentBills = unitOfWork.advance(billRepository, billsVersion);
+                if (currentRollups < 0 || currentBills < 0) return;
+
+                rollupsVersion = currentRollups;
+                billsVersion = currentBills;
+            }
+        });
+    }
+
+    /**
+     * Retrieves the rollups of every day on or after a specified date.
+     *
+     * @param date the first day to include
+     * @return a list of the rollups of the days with sales
+     */
+    public List<DailySales> getDaysSince(LocalDate date) {
+        ensureCurrent();
+        return dailySalesRepository.getDaysSince(date);
+    }
+
+    /**
+     * Retrieves the rollups of every day in a period.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return a list of the rollups of the days with sales
+     */
+    public List<DailySales> getDays(LocalDate from, LocalDate to) {
+        return getDaysSince(from).stream()
+                .filter(day -> !day.getDay().isAfter(to))
+                .toList();
+    }
+
+    /**
+     * Estimates the number of distinct clients who bought in a period.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the estimated number of distinct clients
+     */
+    public long getDistinctClients(LocalDate from, LocalDate to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (DailySales day : getDays(from, to)) {
+            sketch.merge(day.getClientSketch());
+        }
+        return sketch.estimate();
+    }
+
+    /**
+     * Rebuilds every rollup from the stored bills and sales, replacing the
+     * stored rollups. The daily totals are aggregated in parallel when there
+     * are enough bills for it to pay off.
+     */
+    public void rebuild() {
+        synchronized (checkLock) {
+            replaceRollups();
+            rollupsVersion = dailySalesRepository.version();
+            billsVersion = billRepository.version();
+        }
+    }
+
+    /**
+     * Checks the rollups against the bills if either changed since they
+     * were last checked, and rebuilds them if the number of tickets, the
+     * total amount or the amount of any day does not match the dated bills.
+     */
+    private void ensureCurrent() {
+        synchronized (checkLock) {
+            long currentRollups = dailySalesRepository.version();
+            long currentBills = billRepository.version();
+            if (currentRollups == rollupsVersion && currentBills == billsVersion) return;
+
+            long tickets = 0;
+            double amount = 0;
+            boolean matches = true;
+            for (DailySales day : dailySalesRepository.getAll()) {
+                tickets += day.getTickets();
+                amount += day.getAmount();
+                matches &= Math.abs(day.getAmount() - billRepository.getRevenue(day.getDay(), day.getDay())) <= 0.005;
+            }
+
+            matches &= tickets == billRepository.countDatedBills()
+                    && Math.abs(amount - billRepository.getRevenueUntil(LocalDate.MAX)) <= 0.005;
+            if (!matches) {
+                rebuild();
+                return;
+            }
+            rollupsVersion = currentRollups;
+            billsVersion = currentBills;
+        }
+    }
+
+    /**
+     * Recomputes every rollup from the stored bills and sales.
+     */
+    private void replaceRollups() {
+        Map<String, Integer> unitsByBill = new HashMap<>();
+        for (Sale sale : saleRepository.getAll()) {
+            unitsByBill.merge(sale.getBillId(), sale.getQuantity(), Integer::sum);
+        }
+
+        List<Bill> bills = billRepository.getAll().stream().filter(b -> b.getDateTime() != null).toList();
+        DailyTotals totals = DailyTotals.aggregate(bills, unitsByBill);
+
+        Map<LocalDate, DailySales> days = new TreeMap<>();
+        for (int day = 0; day < totals.days(); day++) {
+            if (totals.tickets[day] == 0) continue;
+
+            LocalDate date = LocalDate.ofEpochDay(totals.firstDay + day);
+            days.put(date, new DailySales(date.toString(), totals.amount[day], totals.tickets[day], totals.units[day], null));
+        }
+        for (Bill bill : bills) {
+            days.get(bill.getDateTime().toLocalDate()).addClient(bill.getClientId());
+        }
+
+        dailySalesRepository.replaceAll(new ArrayList<>(days.values()));
+    }
+}
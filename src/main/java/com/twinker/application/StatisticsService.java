@@ -1,20 +1,26 @@
 package com.twinker.application;
 
-import com.twinker.domain.entity.Bill;
-import com.twinker.domain.entity.Sale;
-import com.twinker.persistence.repository.*;
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.collection.TopK;
+import com.twinker.domain.entity.DailySales;
+import com.twinker.persistence.repository.BillRepository;
+import com.twinker.persistence.repository.ClientRepository;
+import com.twinker.persistence.repository.ProductRepository;
 
 import java.time.*;
 import java.time.temporal.TemporalAdjusters;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing business statistics in the Twinker application.
  * This class provides comprehensive analytics and reporting functionality,
  * including sales trends, top performers, and time-based analysis.
+ * Period charts are computed from the daily sales rollups, one record per
+ * day, unit totals from the columnar sales, one contiguous range per
+ * period, and rankings from the sales cube, one cell per day, product and
+ * client, instead of from every bill.
  *
  * <p>
  * The service provides:
@@ -22,20 +28,29 @@ import java.util.stream.Collectors;
  * <li>Weekly sales analysis</li>
  * <li>Monthly sales tracking</li>
  * <li>Annual sales reporting</li>
- * <li>Top product analysis</li>
+ * <li>Revenue totals of any date range</li>
+ * <li>Units sold in any date range, from the columnar sales</li>
+ * <li>Top product analysis, exact for any period and approximate for the
+ * current year</li>
  * <li>Top client tracking</li>
+ * <li>Distinct client counts and average basket size</li>
  * </ul>
  * </p>
  *
  * @author Twinker Development Team
  * @see com.twinker.domain.entity.Bill
  * @see com.twinker.domain.entity.Sale
+ * @see com.twinker.application.SalesRollupService
+ * @see com.twinker.application.SalesCube
  */
 public class StatisticsService {
+    private static final int TOP_SIZE = DataConfig.getInt("statistics.topk.size", 10);
+
     private final ClientRepository clientRepository;
     private final BillRepository billRepository;
     private final ProductRepository productRepository;
-    private final SaleRepository saleRepository;
+    private final SalesRollupService salesRollupService;
+    private final SalesCube salesCube;
 
     /**
      * Constructs a new StatisticsService.
@@ -45,7 +60,8 @@ public class StatisticsService {
         clientRepository = new ClientRepository();
         billRepository = new BillRepository();
         productRepository = new ProductRepository();
-        saleRepository = new SaleRepository();
+        salesRollupService = new SalesRollupService();
+        salesCube = SalesCube.shared();
     }
 
     /**
@@ -58,16 +74,15 @@ public class StatisticsService {
         LocalDate today = LocalDate.now();
         LocalDate lastMonday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
 
-        List<Bill> bills = billRepository.getBillsSince(lastMonday);
+        List<DailySales> days = salesRollupService.getDaysSince(lastMonday);
         Map<String, Double> weeklySales = new LinkedHashMap<>();
         for (DayOfWeek dow : DayOfWeek.values()) {
             weeklySales.put(dow.name(), 0.0);
         }
 
-        for (Bill bill : bills) {
-            LocalDateTime billDate = LocalDateTime.parse(bill.getDate());
-            String key = billDate.getDayOfWeek().name();
-            weeklySales.put(key, weeklySales.get(key) + bill.getAmount());
+        for (DailySales day : days) {
+            String key = day.getDay().getDayOfWeek().name();
+            weeklySales.put(key, weeklySales.get(key) + day.getAmount());
         }
 
         return weeklySales;
@@ -82,7 +97,7 @@ public class StatisticsService {
     public Map<String, Double> getMonthlySales() {
         LocalDate today = LocalDate.now();
         LocalDate firstOfMonth = today.with(TemporalAdjusters.firstDayOfMonth());
-        List<Bill> bills = billRepository.getBillsSince(firstOfMonth);
+        List<DailySales> days = salesRollupService.getDaysSince(firstOfMonth);
 
         Map<String, Double> monthlySales = new LinkedHashMap<>();
         YearMonth ym = YearMonth.from(today);
@@ -92,11 +107,11 @@ public class StatisticsService {
             monthlySales.put(String.valueOf(d), 0.0);
         }
 
-        for (Bill bill : bills) {
-            LocalDateTime billDate = LocalDateTime.parse(bill.getDate());
-            if (billDate.getYear() == today.getYear() && billDate.getMonthValue() == today.getMonthValue()) {
-                String key = String.valueOf(billDate.getDayOfMonth());
-                monthlySales.put(key, monthlySales.get(key) + bill.getAmount());
+        for (DailySales day : days) {
+            LocalDate date = day.getDay();
+            if (date.getYear() == today.getYear() && date.getMonthValue() == today.getMonthValue()) {
+                String key = String.valueOf(date.getDayOfMonth());
+                monthlySales.put(key, monthlySales.get(key) + day.getAmount());
             }
         }
 
@@ -113,18 +128,18 @@ public class StatisticsService {
         LocalDate today = LocalDate.now();
         LocalDate firstOfYear = today.with(TemporalAdjusters.firstDayOfYear());
 
-        List<Bill> bills = billRepository.getBillsSince(firstOfYear);
+        List<DailySales> days = salesRollupService.getDaysSince(firstOfYear);
 
         Map<String, Double> annualSales = new LinkedHashMap<>();
         for (Month month : Month.values()) {
             annualSales.put(month.name(), 0.0);
         }
 
-        for (Bill bill : bills) {
-            LocalDateTime billDate = LocalDateTime.parse(bill.getDate());
-            if (billDate.getYear() == today.getYear()) {
-                String key = billDate.getMonth().name();
-                annualSales.put(key, annualSales.get(key) + bill.getAmount());
+        for (DailySales day : days) {
+            LocalDate date = day.getDay();
+            if (date.getYear() == today.getYear()) {
+                String key = date.getMonth().name();
+                annualSales.put(key, annualSales.get(key) + day.getAmount());
             }
         }
 
@@ -132,65 +147,150 @@ public class StatisticsService {
     }
 
     /**
-     * Retrieves the top-selling products for the current month.
-     * Products are sorted by quantity sold in descending order.
+     * Retrieves the total amount sold in a date range, read from the
+     * revenue index of the bills in logarithmic time.
+     *
+     * @param from the first day of the range
+     * @param to   the last day of the range
+     * @return the total amount sold
+     */
+    public double getRevenue(LocalDate from, LocalDate to) {
+        return billRepository.getRevenue(from, to);
+    }
+
+    /**
+     * Retrieves the running total of every amount sold up to and including
+     * a day.
+     *
+     * @param date the last day to include
+     * @return the running total at the end of that day
+     */
+    public double getRunningRevenue(LocalDate date) {
+        return billRepository.getRevenueUntil(date);
+    }
+
+    /**
+     * Sums the units sold in a period, with the vectorized loops of the
+     * columnar sales when available.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the units sold in the period
+     */
+    public long getUnitsSold(LocalDate from, LocalDate to) {
+        return SalesColumns.shared().units(from, to);
+    }
+
+    /**
+     * Estimates the number of distinct clients who bought in a period, by
+     * merging the client sketches of the daily rollups.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the estimated number of distinct clients
+     */
+    public long getDistinctClients(LocalDate from, LocalDate to) {
+        return salesRollupService.getDistinctClients(from, to);
+    }
+
+    /**
+     * Computes the average number of units per bill in a period, from the
+     * daily rollups.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the average basket size, or zero if there were no bills
+     */
+    public double getAverageBasketSize(LocalDate from, LocalDate to) {
+        int tickets = 0;
+        int units = 0;
+        for (DailySales day : salesRollupService.getDays(from, to)) {
+            tickets += day.getTickets();
+            units += day.getUnits();
+        }
+        return tickets == 0 ? 0 : (double) units / tickets;
+    }
+
+    /**
+     * Retrieves the top-selling products for the current month, read from
+     * the sales cube. Products are sorted by quantity sold in descending
+     * order.
      *
      * @return a map of product names to quantities sold
      */
     public Map<String, Integer> getMonthlyTopProducts() {
         LocalDate today = LocalDate.now();
-        LocalDate firstOfMonth = today.with(TemporalAdjusters.firstDayOfMonth());
-        List<Bill> bills = billRepository.getBillsSince(firstOfMonth);
+        return getTopProducts(today.with(TemporalAdjusters.firstDayOfMonth()), today);
+    }
 
+    /**
+     * Retrieves the top-selling products for the current year, from the
+     * year's streaming summary. Both the ranking and the quantities are
+     * approximate once more products were sold than the summary counts.
+     *
+     * @return a map of product names to estimated quantities sold
+     */
+    public Map<String, Integer> getAnnualTopProducts() {
         Map<String, Integer> topProducts = new LinkedHashMap<>();
 
-        for (Bill bill : bills) {
-            List<Sale> sales = saleRepository.getSalesByBillId(bill.getId());
-            for (Sale sale : sales) {
-                productRepository.getById(sale.getProductId())
-                        .ifPresent(product ->
-                                topProducts.merge(
-                                        product.getName(),
-                                        sale.getQuantity(),
-                                        Integer::sum
-                                )
-                        );
-            }
-        }
+        salesCube.topProducts(Year.now(), TOP_SIZE).forEach((productId, units) ->
+                productRepository.getById(productId)
+                        .ifPresent(product -> topProducts.merge(product.getName(), units, Integer::sum))
+        );
 
-        return topProducts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (a, _) -> a,
-                        LinkedHashMap::new
-                ));
+        return topProducts;
     }
 
     /**
-     * Retrieves the top clients by sales amount for the current month.
-     * Clients are sorted by total purchase amount.
+     * Retrieves the top clients by sales amount for the current month, read
+     * from the sales cube. Clients are sorted by total purchase amount in
+     * descending order.
      *
      * @return a map of client names to total purchase amounts
      */
     public Map<String, Double> getMonthlyTopClients() {
         LocalDate today = LocalDate.now();
-        LocalDate firstOfMonth = today.with(TemporalAdjusters.firstDayOfMonth());
-        List<Bill> bills = billRepository.getBillsSince(firstOfMonth);
+        return getTopClients(today.with(TemporalAdjusters.firstDayOfMonth()), today);
+    }
 
-        Map<String, Double> topClients = new LinkedHashMap<>();
+    /**
+     * Retrieves the top-selling products for a period, read from the sales
+     * cube. Only the best products are kept, with a bounded heap, sorted by
+     * quantity sold in descending order.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return a map of product names to quantities sold
+     */
+    public Map<String, Integer> getTopProducts(LocalDate from, LocalDate to) {
+        Map<String, Integer> topProducts = new LinkedHashMap<>();
+
+        for (TopK.Entry<String> entry : TopK.largest(salesCube.unitsByProduct(from, to), TOP_SIZE)) {
+            productRepository.getById(entry.key())
+                    .ifPresent(product -> topProducts.merge(product.getName(), (int) entry.count(), Integer::sum));
+        }
+
+        return topProducts;
+    }
 
-        for (Bill bill : bills) {
-            if (bill.getId() == null) continue;
-            clientRepository.getById(bill.getClientId())
-                    .ifPresent(client ->
-                            topClients.merge(
-                                    client.getName(),
-                                    bill.getAmount(),
-                                    Double::sum
-                            )
-                    );
+    /**
+     * Retrieves the top clients by sales amount for a period, read from the
+     * sales cube. Only the best clients are kept, with a bounded heap, sorted
+     * by total purchase amount in descending order; bills without a client
+     * are left out.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return a map of client names to total purchase amounts
+     */
+    public Map<String, Double> getTopClients(LocalDate from, LocalDate to) {
+        Map<String, Double> revenue = salesCube.revenueByClient(from, to);
+        revenue.remove(null);
+
+        Map<String, Double> topClients = new LinkedHashMap<>();
+        for (TopK.Entry<String> entry : TopK.largest(revenue, TOP_SIZE)) {
+            clientRepository.getById(entry.key())
+                    .ifPresent(client -> topClients.merge(client.getName(), entry.count(), Double::sum));
         }
 
         return topClients;
@@ -0,0 +1,56 @@
+package com.twinker.application;
+
+import jdk.incubator.vector.*;
+
+/**
+ * Aggregation loops over the sales columns written with the incubating
+ * Vector API, so each iteration processes as many lines as fit in the
+ * widest vector register of the machine.
+ *
+ * <p>
+ * This class is only loaded when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}; otherwise
+ * {@link SalesColumns} falls back to its scalar loops.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.application.SalesColumns
+ */
+final class VectorKernels implements SalesColumns.Kernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final int UNITS_BLOCK = 1 << 16;
+
+    /**
+     * Constructs the kernels for the vector shape of this machine.
+     *
+     * @throws UnsupportedOperationException if the machine has no vectors of
+     *                                       at least two ints
+     */
+    VectorKernels() {
+        if (INTS.length() < 2) throw new UnsupportedOperationException("No int vectors on this machine");
+    }
+
+    /**
+     * Sums the quantities of a range. Lanes are reduced into a long every
+     * block of lines, so they cannot overflow.
+     */
+    @Override
+    public long units(int[] quantity, int from, int to) {
+        long total = 0;
+        int i = from;
+        int upper = from + INTS.loopBound(to - from);
+        while (i < upper) {
+            IntVector sum = IntVector.zero(INTS);
+            int blockEnd = Math.min(upper, i + UNITS_BLOCK);
+            for (; i < blockEnd; i += INTS.length()) {
+                sum = sum.add(IntVector.fromArray(INTS, quantity, i));
+            }
+            total += sum.reduceLanesToLong(VectorOperators.ADD);
+        }
+
+        for (; i < to; i++) {
+            total += quantity[i];
+        }
+        return total;
+    }
+}
@@ -61,4 +61,24 @@ public class DataConfig {
     public static String get(String key) {
         return properties.getProperty(key);
     }
+
+    /**
+     * Retrieves a configuration property as an integer.
+     * Falls back to the default value if the key is missing or not a number.
+     *
+     * @param key          the key of the configuration property to retrieve
+     * @param defaultValue the value to use if the property is missing or invalid
+     * @return the integer value associated with the key, or the default value
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) return defaultValue;
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Invalid number for `" + key + "`: " + value);
+            return defaultValue;
+        }
+    }
 }
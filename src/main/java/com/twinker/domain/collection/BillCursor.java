@@ -0,0 +1,63 @@
+package com.twinker.domain.collection;
+
+import com.twinker.domain.entity.Bill;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * A record that marks a position in the list of bills sorted from newest to
+ * oldest. Pages of bills are requested relative to a cursor instead of an
+ * offset, so fetching a page does not depend on how many bills come before it.
+ *
+ * <p>
+ * The record combines:
+ * <ul>
+ * <li>The date of the last bill already shown, null if it had none</li>
+ * <li>The ID of that bill, to break ties between bills with the same date</li>
+ * </ul>
+ * </p>
+ *
+ * @param date the date of the last bill already shown
+ * @param id   the ID of the last bill already shown
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.entity.Bill
+ * @see com.twinker.domain.collection.BillEntry
+ */
+public record BillCursor(LocalDateTime date, String id) {
+
+    /**
+     * Order of the bill listing: newest date first, then highest ID first.
+     * Bills without a valid date come last.
+     */
+    public static final Comparator<Bill> NEWEST_FIRST = Comparator
+            .comparing(Bill::getDateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Bill::getId)
+            .reversed();
+
+    /**
+     * Creates the cursor pointing just after a bill.
+     *
+     * @param bill the last bill already shown
+     * @return the cursor for the next page
+     */
+    public static BillCursor after(Bill bill) {
+        return new BillCursor(bill.getDateTime(), bill.getId());
+    }
+
+    /**
+     * Checks whether a bill comes after this cursor in the listing.
+     *
+     * @param bill the bill to check
+     * @return true if the bill is older than the cursor, or equally old
+     * with a lower ID; bills without a date are older than any dated bill
+     */
+    public boolean precedes(Bill bill) {
+        LocalDateTime billDate = bill.getDateTime();
+        int byDate = billDate == null || date == null
+                ? Boolean.compare(billDate != null, date != null)
+                : billDate.compareTo(date);
+        return byDate < 0 || (byDate == 0 && bill.getId().compareTo(id) < 0);
+    }
+}
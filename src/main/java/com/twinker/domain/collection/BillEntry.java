@@ -3,6 +3,7 @@ package com.twinker.domain.collection;
 import com.twinker.domain.entity.Bill;
 import com.twinker.domain.entity.Client;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 
@@ -49,6 +50,15 @@ public record BillEntry(Bill bill, List<SaleEntry> saleEntries, Client client) {
         return bill.getDate();
     }
 
+    /**
+     * Gets the date of the transaction as a date-time.
+     *
+     * @return the transaction date-time
+     */
+    public LocalDateTime getDateTime() {
+        return bill.getDateTime();
+    }
+
     /**
      * Gets the name of the client.
      *
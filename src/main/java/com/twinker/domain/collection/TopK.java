@@ -0,0 +1,186 @@
+package com.twinker.domain.collection;
+
+import java.util.*;
+
+/**
+ * Streaming summary of the heaviest keys of a stream, in bounded memory.
+ * Implements the Space-Saving algorithm: at most {@code capacity} counters
+ * are kept in a min-heap, and a key that is not counted yet takes over the
+ * smallest counter, inheriting its count as error.
+ *
+ * <p>
+ * The summary guarantees:
+ * <ul>
+ * <li>Exact counts while there are no more distinct keys than counters</li>
+ * <li>Every key heavier than the total weight divided by the capacity is
+ * counted, with an overestimate of at most its error</li>
+ * <li>Logarithmic time per update, whatever the number of distinct keys</li>
+ * </ul>
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @author Twinker Development Team
+ * @see com.twinker.application.StatisticsService
+ */
+public class TopK<K> {
+    private final Map<K, Integer> positions = new HashMap<>();
+    private final Object[] keys;
+    private final double[] counts;
+    private final double[] errors;
+    private int size;
+
+    /**
+     * Constructs an empty summary.
+     *
+     * @param capacity the maximum number of counters
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public TopK(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Invalid capacity " + capacity);
+
+        keys = new Object[capacity];
+        counts = new double[capacity];
+        errors = new double[capacity];
+    }
+
+    /**
+     * Adds weight to a key.
+     *
+     * @param key    the key
+     * @param weight the weight to add, not negative
+     */
+    public void add(K key, double weight) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+            return;
+        }
+
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+            return;
+        }
+
+        positions.remove(keys[0]);
+        keys[0] = key;
+        errors[0] = counts[0];
+        counts[0] += weight;
+        positions.put(key, 0);
+        siftDown(0);
+    }
+
+    /**
+     * Gets the heaviest keys of the summary.
+     *
+     * @param n the maximum number of keys
+     * @return the heaviest keys, heaviest first
+     */
+    public List<Entry<K>> top(int n) {
+        List<Entry<K>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(entry(i));
+        }
+
+        entries.sort(Comparator.comparingDouble(Entry<K>::count).reversed());
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    /**
+     * Gets the number of counted keys.
+     *
+     * @return the number of counters in use
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Selects the largest values of a map with a heap of at most {@code n}
+     * entries, without sorting the whole map.
+     *
+     * @param totals the values to select from
+     * @param n      the maximum number of entries
+     * @param <K>    the type of the keys
+     * @return the entries with the largest values, largest first
+     */
+    public static <K> List<Entry<K>> largest(Map<K, ? extends Number> totals, int n) {
+        if (n <= 0) return new ArrayList<>();
+
+        PriorityQueue<Entry<K>> heap = new PriorityQueue<>(Comparator.comparingDouble(Entry<K>::count));
+        totals.forEach((key, value) -> {
+            double count = value.doubleValue();
+            if (heap.size() < n) {
+                heap.add(new Entry<>(key, count, 0));
+            } else if (count > heap.peek().count()) {
+                heap.poll();
+                heap.add(new Entry<>(key, count, 0));
+            }
+        });
+
+        List<Entry<K>> entries = new ArrayList<>(heap);
+        entries.sort(Comparator.comparingDouble(Entry<K>::count).reversed());
+        return entries;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<K> entry(int i) {
+        return new Entry<>((K) keys[i], counts[i], errors[i]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) return;
+
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) smallest = left;
+            if (right < size && counts[right] < counts[smallest]) smallest = right;
+            if (smallest == i) return;
+
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+
+        double count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+
+        double error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+
+        positions.put((K) keys[a], a);
+        positions.put((K) keys[b], b);
+    }
+
+    /**
+     * A counted key of the summary.
+     *
+     * @param key   the key
+     * @param count the counted weight, possibly overestimated
+     * @param error the maximum overestimate of the count
+     * @param <K>   the type of the key
+     */
+    public record Entry<K>(K key, double count, double error) { }
+}
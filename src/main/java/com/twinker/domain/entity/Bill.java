@@ -1,5 +1,7 @@
 package com.twinker.domain.entity;
 
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -17,14 +19,28 @@ import java.util.UUID;
  * </ul>
  * </p>
  *
+ * <p>
+ * The date is stored as an ISO-8601 local date-time string. It is decoded
+ * once, on first use, by a hand-written parser for that format, and the
+ * result is cached until the date changes. A date that cannot be decoded
+ * is treated as missing.
+ * </p>
+ *
  * @author Twinker Development Team
  * @see com.twinker.domain.entity.Client
  */
 public class Bill extends Entity {
+    private static final int[] POWERS_OF_TEN = {
+            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000
+    };
+
     private final String id;
+    @Indexed
     private String clientId;
     private String date;
     private double amount;
+    private transient LocalDateTime dateTime;
+    private transient boolean invalidDate;
 
     /**
      * Constructs a new Bill with a randomly generated ID.
@@ -33,6 +49,22 @@ public class Bill extends Entity {
         this.id = UUID.randomUUID().toString();
     }
 
+    /**
+     * Constructs a Bill with an existing ID and values.
+     * Used when restoring stored bills.
+     *
+     * @param id       the bill's ID
+     * @param clientId the ID of the associated client
+     * @param date     the transaction date
+     * @param amount   the total transaction amount
+     */
+    public Bill(String id, String clientId, String date, double amount) {
+        this.id = id;
+        this.clientId = clientId;
+        this.date = date;
+        this.amount = amount;
+    }
+
     /**
      * Gets the ID of the client associated with this bill.
      *
@@ -67,6 +99,26 @@ public class Bill extends Entity {
      */
     public void setDate(String date) {
         this.date = date;
+        this.dateTime = null;
+        this.invalidDate = false;
+    }
+
+    /**
+     * Gets the date of the transaction as a date-time.
+     * The stored date is decoded on the first call and cached.
+     *
+     * @return the transaction date-time, or null if the bill has no date or
+     * it is not a valid ISO-8601 local date-time
+     */
+    public LocalDateTime getDateTime() {
+        if (dateTime == null && date != null && !invalidDate) {
+            try {
+                dateTime = parseDate(date);
+            } catch (DateTimeException e) {
+                invalidDate = true;
+            }
+        }
+        return dateTime;
     }
 
     /**
@@ -96,4 +148,59 @@ public class Bill extends Entity {
     public String getId() {
         return id;
     }
+
+    /**
+     * Decodes an ISO-8601 local date-time, as written by
+     * {@link LocalDateTime#toString()}, without going through a formatter.
+     * Text in any other layout is handed to {@link LocalDateTime#parse}.
+     *
+     * @param text the date-time text, such as {@code 2025-05-23T23:55:24.305}
+     * @return the decoded date-time
+     */
+    private static LocalDateTime parseDate(String text) {
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+            return LocalDateTime.parse(text);
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = 0;
+        int nano = 0;
+
+        if (length > 16) {
+            second = length >= 19 && text.charAt(16) == ':' ? digits(text, 17, 19) : -1;
+        }
+        if (length > 19) {
+            int fraction = length <= 29 && text.charAt(19) == '.' ? digits(text, 20, length) : -1;
+            nano = fraction < 0 ? -1 : fraction * POWERS_OF_TEN[29 - length];
+        }
+
+        if ((year | month | day | hour | minute | second | nano) < 0) return LocalDateTime.parse(text);
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Reads a run of ASCII digits as a number.
+     *
+     * @param text the text to read
+     * @param from the index of the first digit
+     * @param to   the index just past the last digit
+     * @return the number, or -1 if the run is empty or holds a non-digit
+     */
+    private static int digits(String text, int from, int to) {
+        if (from >= to) return -1;
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
 }
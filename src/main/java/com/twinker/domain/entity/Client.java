@@ -46,6 +46,22 @@ public class Client extends Entity {
         this.email = email;
     }
 
+    /**
+     * Constructs a Client with an existing ID and details.
+     * Used when restoring stored clients.
+     *
+     * @param id    the client's ID
+     * @param name  the client's name
+     * @param phone the client's phone number
+     * @param email the client's email address
+     */
+    public Client(String id, String name, String phone, String email) {
+        this.id = id;
+        this.name = name;
+        this.phone = phone;
+        this.email = email;
+    }
+
     /**
      * Gets the client's name.
      *
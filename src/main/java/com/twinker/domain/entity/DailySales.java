@@ -0,0 +1,176 @@
+package com.twinker.domain.entity;
+
+import com.twinker.domain.collection.HyperLogLog;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the sales totals of a single day in the Twinker application.
+ * This class is a rollup of the bills of that day, kept up to date as bills
+ * are confirmed so statistics do not have to read every bill.
+ *
+ * <p>
+ * Each daily rollup tracks:
+ * <ul>
+ * <li>The day, as an ISO-8601 date used as the ID</li>
+ * <li>The total amount sold</li>
+ * <li>The number of bills (tickets)</li>
+ * <li>The number of units sold</li>
+ * <li>A HyperLogLog sketch of the clients who bought, so distinct clients
+ * of any period can be estimated by merging the sketches of its days</li>
+ * </ul>
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.entity.Bill
+ * @see com.twinker.domain.entity.Sale
+ */
+public class DailySales extends Entity {
+    private String id;
+    private double amount;
+    private int tickets;
+    private int units;
+    private HyperLogLog clients;
+    private transient String encodedClients;
+
+    /**
+     * Constructs a new empty daily rollup.
+     */
+    public DailySales() { }
+
+    /**
+     * Constructs a new daily rollup with no sales for the specified day.
+     *
+     * @param day the day of the rollup
+     */
+    public DailySales(LocalDate day) {
+        this.id = day.toString();
+    }
+
+    /**
+     * Constructs a daily rollup with an existing day and totals.
+     * Used when restoring stored rollups.
+     *
+     * @param id      the day of the rollup, as an ISO-8601 date
+     * @param amount  the total amount sold
+     * @param tickets the number of bills
+     * @param units   the number of units sold
+     * @param clients the encoded sketch of the clients, or null if none
+     */
+    public DailySales(String id, double amount, int tickets, int units, String clients) {
+        this.id = id;
+        this.amount = amount;
+        this.tickets = tickets;
+        this.units = units;
+        this.encodedClients = clients;
+    }
+
+    /**
+     * Constructs a copy of a daily rollup, with its own sketch of clients.
+     *
+     * @param other the rollup to copy
+     */
+    public DailySales(DailySales other) {
+        this(other.id, other.amount, other.tickets, other.units, other.encodedClients);
+        if (other.clients != null) {
+            clients = new HyperLogLog();
+            clients.merge(other.clients);
+        }
+    }
+
+    /**
+     * Adds a bill to the totals of the day.
+     *
+     * @param amount the amount of the bill
+     * @param units  the number of units sold in the bill
+     */
+    public void addTicket(double amount, int units) {
+        this.amount += amount;
+        this.tickets++;
+        this.units += units;
+    }
+
+    /**
+     * Adds the client of a bill to the sketch of the day's clients.
+     *
+     * @param clientId the client's ID, or null for an anonymous bill
+     */
+    public void addClient(String clientId) {
+        if (clientId == null) return;
+
+        getClientSketch().add(clientId);
+    }
+
+    /**
+     * Gets the sketch of the clients who bought on the day.
+     * A stored sketch is decoded on the first call and only the decoded one
+     * is kept afterwards.
+     *
+     * @return the sketch of the day's clients
+     */
+    public HyperLogLog getClientSketch() {
+        if (clients == null) {
+            clients = HyperLogLog.decode(encodedClients);
+            encodedClients = null;
+        }
+        return clients;
+    }
+
+    /**
+     * Gets the encoded sketch of the clients who bought on the day.
+     * A sketch that was never decoded is returned as it was stored;
+     * otherwise it is encoded on each call, so callers should only need it
+     * when the rollup is written.
+     *
+     * @return the encoded sketch, or null if no client bought
+     */
+    public String getClients() {
+        return clients == null ? encodedClients : clients.encode();
+    }
+
+    /**
+     * Gets the day of the rollup.
+     *
+     * @return the day
+     */
+    public LocalDate getDay() {
+        return LocalDate.parse(id);
+    }
+
+    /**
+     * Gets the total amount sold on the day.
+     *
+     * @return the total amount
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Gets the number of bills confirmed on the day.
+     *
+     * @return the number of tickets
+     */
+    public int getTickets() {
+        return tickets;
+    }
+
+    /**
+     * Gets the number of units sold on the day.
+     *
+     * @return the number of units
+     */
+    public int getUnits() {
+        return units;
+    }
+
+    /**
+     * Gets the rollup's unique identifier: its day as an ISO-8601 date.
+     *
+     * @return the rollup's ID
+     */
+    @Override
+    public String getId() {
+        return id;
+    }
+}
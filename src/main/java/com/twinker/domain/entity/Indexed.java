@@ -0,0 +1,25 @@
+package com.twinker.domain.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity field that entities are frequently looked up by.
+ * Repositories keep a hash index on every annotated field, so lookups by
+ * that field do not have to scan every stored entity.
+ *
+ * <p>
+ * The field's value is indexed by its string form; entities whose value
+ * is null are not indexed.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.repository.Repository#findBy(String, Object)
+ * @see com.twinker.persistence.repository.Repository#findAllBy(String, Object)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Indexed {
+}
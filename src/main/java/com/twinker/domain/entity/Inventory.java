@@ -19,6 +19,7 @@ import java.util.UUID;
  */
 public class Inventory extends Entity {
     private String id;
+    @Indexed
     private String productId;
     private int stock;
 
@@ -39,6 +40,20 @@ public class Inventory extends Entity {
         this.stock = quantity;
     }
 
+    /**
+     * Constructs an Inventory entry with an existing ID and values.
+     * Used when restoring stored inventory entries.
+     *
+     * @param id        the inventory entry's ID
+     * @param productId the ID of the associated product
+     * @param stock     the current stock quantity
+     */
+    public Inventory(String id, String productId, int stock) {
+        this.id = id;
+        this.productId = productId;
+        this.stock = stock;
+    }
+
     /**
      * Gets the ID of the associated product.
      *
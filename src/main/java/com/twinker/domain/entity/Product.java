@@ -46,6 +46,22 @@ public class Product extends Entity {
         this.description = description;
     }
 
+    /**
+     * Constructs a Product with an existing ID and details.
+     * Used when restoring stored products.
+     *
+     * @param id          the product ID
+     * @param name        the product name
+     * @param price       the product price
+     * @param description the product description
+     */
+    public Product(String id, String name, double price, String description) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.description = description;
+    }
+
     /**
      * Gets the product name.
      *
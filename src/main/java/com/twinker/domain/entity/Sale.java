@@ -23,6 +23,7 @@ import java.util.UUID;
  */
 public class Sale extends Entity {
     private String id;
+    @Indexed
     private String billId;
     private String productId;
     private int quantity;
@@ -49,6 +50,25 @@ public class Sale extends Entity {
         this.unitPrice = unitPrice;
     }
 
+    /**
+     * Constructs a Sale entry with an existing ID and values.
+     * Used when restoring stored sales; note that the bill ID comes before
+     * the product ID, matching the stored column order.
+     *
+     * @param id        the sale entry's ID
+     * @param billId    the ID of the associated bill
+     * @param productId the ID of the product being sold
+     * @param quantity  the quantity purchased
+     * @param unitPrice the price per unit
+     */
+    public Sale(String id, String billId, String productId, int quantity, double unitPrice) {
+        this.id = id;
+        this.billId = billId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
     /**
      * Gets the sale entry's unique identifier.
      *
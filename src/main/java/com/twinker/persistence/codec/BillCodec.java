@@ -0,0 +1,45 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.Bill;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Codec for {@link Bill} rows.
+ * Columns: {@code id, clientId, date, amount}.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.codec.Codec
+ */
+public class BillCodec implements Codec<Bill> {
+    private static final String[] COLUMNS = {"id", "clientId", "date", "amount"};
+
+    @Override
+    public Class<Bill> type() {
+        return Bill.class;
+    }
+
+    @Override
+    public String[] columns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Bill decode(CsvRecord record) {
+        return new Bill(
+                record.text(0),
+                record.text(1),
+                record.text(2),
+                record.decimal(3)
+        );
+    }
+
+    @Override
+    public String[] encode(Bill bill) {
+        return new String[]{
+                Codec.text(bill.getId()),
+                Codec.text(bill.getClientId()),
+                Codec.text(bill.getDate()),
+                Double.toString(bill.getAmount())
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.Client;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Codec for {@link Client} rows.
+ * Columns: {@code id, name, phone, email}.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.codec.Codec
+ */
+public class ClientCodec implements Codec<Client> {
+    private static final String[] COLUMNS = {"id", "name", "phone", "email"};
+
+    @Override
+    public Class<Client> type() {
+        return Client.class;
+    }
+
+    @Override
+    public String[] columns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Client decode(CsvRecord record) {
+        return new Client(
+                record.text(0),
+                record.text(1),
+                record.text(2),
+                record.text(3)
+        );
+    }
+
+    @Override
+    public String[] encode(Client client) {
+        return new String[]{
+                Codec.text(client.getId()),
+                Codec.text(client.getName()),
+                Codec.text(client.getPhone()),
+                Codec.text(client.getEmail())
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.Entity;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Converts an entity to and from a CSV row without reflection.
+ * Each entity type has its own codec that reads and writes the columns in a
+ * fixed order, so the file layout does not depend on the order of the fields
+ * in the class.
+ *
+ * <p>
+ * A codec provides:
+ * <ul>
+ * <li>The names of the columns, matching the entity fields they store</li>
+ * <li>Decoding of a row into a new entity</li>
+ * <li>Encoding of an entity into a row</li>
+ * <li>A helper for writing null text values</li>
+ * </ul>
+ * </p>
+ *
+ * @param <T> the type of entity handled by the codec
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.EntityMapper
+ */
+public interface Codec<T extends Entity> {
+    /** Marker stored in the CSV files for null text values */
+    String NULL = CsvRecord.NULL;
+
+    /**
+     * Gets the class of the entity handled by this codec.
+     *
+     * @return the entity class
+     */
+    Class<T> type();
+
+    /**
+     * Gets the names of the columns in file order.
+     * Each name matches the entity field stored in that column.
+     *
+     * @return the column names
+     */
+    String[] columns();
+
+    /**
+     * Creates an entity from a CSV row.
+     * Only the columns the entity needs are read from the record.
+     *
+     * @param record the row, in column order
+     * @return a new entity with the values of the row
+     */
+    T decode(CsvRecord record);
+
+    /**
+     * Converts an entity to a CSV row.
+     *
+     * @param entity the entity to convert
+     * @return the values of the entity, in column order
+     */
+    String[] encode(T entity);
+
+    /**
+     * Formats a text value, turning null into the null marker.
+     *
+     * @param value the value to format
+     * @return the value, or the null marker
+     */
+    static String text(String value) {
+        return value == null ? NULL : value;
+    }
+}
@@ -0,0 +1,48 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.DailySales;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Codec for {@link DailySales} rows.
+ * Columns: {@code id, amount, tickets, units, clients}. The sketch of the
+ * clients is only encoded here, when a rollup is written.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.codec.Codec
+ */
+public class DailySalesCodec implements Codec<DailySales> {
+    private static final String[] COLUMNS = {"id", "amount", "tickets", "units", "clients"};
+
+    @Override
+    public Class<DailySales> type() {
+        return DailySales.class;
+    }
+
+    @Override
+    public String[] columns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public DailySales decode(CsvRecord record) {
+        return new DailySales(
+                record.text(0),
+                record.decimal(1),
+                record.integer(2),
+                record.integer(3),
+                record.text(4)
+        );
+    }
+
+    @Override
+    public String[] encode(DailySales dailySales) {
+        return new String[]{
+                Codec.text(dailySales.getId()),
+                Double.toString(dailySales.getAmount()),
+                Integer.toString(dailySales.getTickets()),
+                Integer.toString(dailySales.getUnits()),
+                Codec.text(dailySales.getClients())
+        };
+    }
+}
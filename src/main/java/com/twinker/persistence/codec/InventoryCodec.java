@@ -0,0 +1,43 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.Inventory;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Codec for {@link Inventory} rows.
+ * Columns: {@code id, productId, stock}.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.codec.Codec
+ */
+public class InventoryCodec implements Codec<Inventory> {
+    private static final String[] COLUMNS = {"id", "productId", "stock"};
+
+    @Override
+    public Class<Inventory> type() {
+        return Inventory.class;
+    }
+
+    @Override
+    public String[] columns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Inventory decode(CsvRecord record) {
+        return new Inventory(
+                record.text(0),
+                record.text(1),
+                record.integer(2)
+        );
+    }
+
+    @Override
+    public String[] encode(Inventory inventory) {
+        return new String[]{
+                Codec.text(inventory.getId()),
+                Codec.text(inventory.getProductId()),
+                Integer.toString(inventory.getStock())
+        };
+    }
+}
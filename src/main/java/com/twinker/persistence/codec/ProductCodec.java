@@ -0,0 +1,45 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.Product;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Codec for {@link Product} rows.
+ * Columns: {@code id, name, price, description}.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.codec.Codec
+ */
+public class ProductCodec implements Codec<Product> {
+    private static final String[] COLUMNS = {"id", "name", "price", "description"};
+
+    @Override
+    public Class<Product> type() {
+        return Product.class;
+    }
+
+    @Override
+    public String[] columns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Product decode(CsvRecord record) {
+        return new Product(
+                record.text(0),
+                record.text(1),
+                record.decimal(2),
+                record.text(3)
+        );
+    }
+
+    @Override
+    public String[] encode(Product product) {
+        return new String[]{
+                Codec.text(product.getId()),
+                Codec.text(product.getName()),
+                Double.toString(product.getPrice()),
+                Codec.text(product.getDescription())
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.twinker.persistence.codec;
+
+import com.twinker.domain.entity.Sale;
+import com.twinker.persistence.utils.CsvRecord;
+
+/**
+ * Codec for {@link Sale} rows.
+ * Columns: {@code id, billId, productId, quantity, unitPrice}.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.codec.Codec
+ */
+public class SaleCodec implements Codec<Sale> {
+    private static final String[] COLUMNS = {"id", "billId", "productId", "quantity", "unitPrice"};
+
+    @Override
+    public Class<Sale> type() {
+        return Sale.class;
+    }
+
+    @Override
+    public String[] columns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Sale decode(CsvRecord record) {
+        return new Sale(
+                record.text(0),
+                record.text(1),
+                record.text(2),
+                record.integer(3),
+                record.decimal(4)
+        );
+    }
+
+    @Override
+    public String[] encode(Sale sale) {
+        return new String[]{
+                Codec.text(sale.getId()),
+                Codec.text(sale.getBillId()),
+                Codec.text(sale.getProductId()),
+                Integer.toString(sale.getQuantity()),
+                Double.toString(sale.getUnitPrice())
+        };
+    }
+}
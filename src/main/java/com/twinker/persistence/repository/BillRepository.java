@@ -1,10 +1,14 @@
 package com.twinker.persistence.repository;
 
 import com.twinker.data.config.DataConfig;
+import com.twinker.domain.collection.BillCursor;
 import com.twinker.domain.entity.Bill;
+import com.twinker.persistence.utils.FenwickFile;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,27 +21,50 @@ import java.util.List;
  * <ul>
  * <li>Basic CRUD operations for bills</li>
  * <li>Date-based bill filtering</li>
+ * <li>Keyset pagination from the newest bill to the oldest</li>
+ * <li>Revenue totals of any date range from a Fenwick tree of the bill
+ * amounts by day</li>
  * <li>CSV-based persistence of bill records</li>
  * </ul>
  * </p>
  *
+ * <p>
+ * Bills are partitioned by the month of their date, so date-range queries
+ * only read the months they cover instead of every bill ever written.
+ * </p>
+ *
+ * <p>
+ * The revenue tree is stored next to the bills file and shared by every
+ * instance of the repository. Bills confirmed through
+ * {@link #recordRevenue(Bill, UnitOfWork)} are added to it as their commit
+ * completes. Any other change to the bills, including a restart, makes the
+ * tree check itself against them once, comparing the number of dated bills
+ * and a fingerprint of their days and amounts, and rebuild only if either
+ * differs.
+ * </p>
+ *
  * @author Twinker Development Team
  * @see com.twinker.domain.entity.Bill
  * @see com.twinker.persistence.repository.Repository
  */
 public class BillRepository extends Repository<Bill> {
+    private static final String UNDATED = "";
+    private static final FenwickFile revenue = new FenwickFile(DataConfig.get("bills.csv.path"));
+    private static long revenueVersion = -1;
 
     /**
      * Constructs a new BillRepository.
-     * Initializes the repository with the configured bills CSV file path.
+     * Initializes the repository with the configured bills CSV file path
+     * and partitions the bills by month.
      */
     public BillRepository() {
-        super(DataConfig.get("bills.csv.path"), Bill.class);
+        super(DataConfig.get("bills.csv.path"), Bill.class, BillRepository::monthOf);
     }
 
     /**
      * Retrieves all bills created on or after a specified date.
-     * Filters bills based on their creation timestamp.
+     * Only the monthly partitions from the month of the date onwards are
+     * read, and their bills are filtered by their cached creation timestamp.
      *
      * @param date the starting date for filtering bills
      * @return a list of bills created on or after the specified date
@@ -45,9 +72,147 @@ public class BillRepository extends Repository<Bill> {
     public List<Bill> getBillsSince(LocalDate date) {
         LocalDateTime since = date.atStartOfDay();
 
-        return getAll().stream().filter(b -> {
-            LocalDateTime billDateTime = LocalDateTime.parse(b.getDate());
-            return !billDateTime.isBefore(since);
-        }).toList();
+        return findFromPartition(YearMonth.from(date).toString()).stream()
+                .filter(b -> !b.getDateTime().isBefore(since))
+                .toList();
+    }
+
+    /**
+     * Retrieves a page of bills sorted from newest to oldest.
+     * Months are visited from the month of the cursor backwards and only
+     * those needed to fill the page are read and sorted, straight from their
+     * rows in the file when the bills are not in memory, so the cost of a page
+     * does not depend on how many bills come before or after it. Bills
+     * without a valid date come after the oldest month.
+     *
+     * @param before the cursor after which the page starts, or null for the
+     *               newest bills
+     * @param limit  the maximum number of bills in the page
+     * @return the bills of the page, newest first
+     */
+    public List<Bill> getBillsPage(BillCursor before, int limit) {
+        String fromMonth = before == null ? null
+                : before.date() == null ? UNDATED : YearMonth.from(before.date()).toString();
+        List<String> months = partitions();
+        List<Bill> page = new ArrayList<>(limit);
+
+        for (int i = months.size() - 1; i >= 0 && page.size() < limit; i--) {
+            if (fromMonth != null && months.get(i).compareTo(fromMonth) > 0) continue;
+
+            List<Bill> bills = findInPartition(months.get(i));
+            bills.sort(BillCursor.NEWEST_FIRST);
+            for (Bill bill : bills) {
+                if (page.size() == limit) break;
+                if (before == null || before.precedes(bill)) page.add(bill);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Sums the amounts of the bills created in a date range.
+     *
+     * @param from the first day of the range
+     * @param to   the last day of the range
+     * @return the total amount of the bills of the range
+     */
+    public double getRevenue(LocalDate from, LocalDate to) {
+        synchronized (revenue) {
+            ensureRevenueIndexed();
+            return revenue.sum(from.toEpochDay(), to.toEpochDay());
+        }
+    }
+
+    /**
+     * Sums the amounts of every bill created up to and including a day.
+     *
+     * @param date the last day to include
+     * @return the running total of the bill amounts at the end of that day
+     */
+    public double getRevenueUntil(LocalDate date) {
+        synchronized (revenue) {
+            ensureRevenueIndexed();
+            return revenue.prefix(date.toEpochDay());
+        }
+    }
+
+    /**
+     * Counts the bills with a valid date, as held by the revenue tree.
+     *
+     * @return the number of dated bills
+     */
+    public long countDatedBills() {
+        synchronized (revenue) {
+            ensureRevenueIndexed();
+            return revenue.count();
+        }
+    }
+
+    /**
+     * Adds a bill to the revenue tree once the unit of work that stores it is
+     * committed.
+     * The bill is only added if the tree was checked right before the commit
+     * and nothing else changed the bills; otherwise the tree is checked again
+     * on its next read.
+     *
+     * @param bill       the confirmed bill
+     * @param unitOfWork the unit of work that persists the bill
+     */
+    public void recordRevenue(Bill bill, UnitOfWork unitOfWork) {
+        unitOfWork.afterCommit(() -> {
+            synchronized (revenue) {
+                long current = unitOfWork.advance(this, revenueVersion);
+                if (revenueVersion < 0 || current < 0 || bill.getDateTime() == null) return;
+
+                try {
+                    revenue.add(bill.getDateTime().toLocalDate().toEpochDay(), bill.getAmount());
+                    revenueVersion = current;
+                } catch (IllegalArgumentException e) {
+                    revenueVersion = -1;
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks the revenue tree against the stored bills if they changed since
+     * it was last checked, other than through a commit it was updated with,
+     * and rebuilds it if the number or the fingerprint of the dated bills
+     * does not match.
+     */
+    private void ensureRevenueIndexed() {
+        long current = version();
+        if (current == revenueVersion) return;
+
+        List<Bill> bills = getAll().stream().filter(b -> b.getDateTime() != null).toList();
+        long fingerprint = 0;
+        for (Bill bill : bills) {
+            fingerprint += FenwickFile.fingerprint(bill.getDateTime().toLocalDate().toEpochDay(), bill.getAmount());
+        }
+
+        if (bills.size() != revenue.count() || fingerprint != revenue.fingerprint()) {
+            long first = bills.stream().mapToLong(b -> b.getDateTime().toLocalDate().toEpochDay()).min().orElse(0);
+            long last = bills.stream().mapToLong(b -> b.getDateTime().toLocalDate().toEpochDay()).max().orElse(-1);
+
+            double[] days = new double[(int) (last - first + 1)];
+            for (Bill bill : bills) {
+                days[(int) (bill.getDateTime().toLocalDate().toEpochDay() - first)] += bill.getAmount();
+            }
+            revenue.reset(first, days, bills.size(), fingerprint);
+        }
+        revenueVersion = current;
+    }
+
+    /**
+     * Gets the partition of a bill: the {@code yyyy-MM} month of its date.
+     * Bills without a valid date share a partition with an empty key, which
+     * sorts before every month.
+     *
+     * @param bill the bill
+     * @return the month of the bill, or an empty key if it has no valid date
+     */
+    private static String monthOf(Bill bill) {
+        LocalDateTime dateTime = bill.getDateTime();
+        return dateTime == null ? UNDATED : YearMonth.from(dateTime).toString();
     }
 }
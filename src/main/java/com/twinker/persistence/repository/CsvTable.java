@@ -0,0 +1,653 @@
+package com.twinker.persistence.repository;
+
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.entity.Entity;
+import com.twinker.persistence.utils.*;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory, write-through copy of a single CSV file.
+ * Tables are shared by every repository pointing at the same file, so the
+ * file is parsed once per process and only reloaded when it changes on disk.
+ *
+ * <p>
+ * The table keeps:
+ * <ul>
+ * <li>The mapped entities, indexed by ID for constant-time lookups</li>
+ * <li>Optional secondary indexes on other fields, kept in sync with every write</li>
+ * <li>An optional partition key with a {@link PartitionManifest} of the file</li>
+ * <li>The file order of the rows, so rewrites keep the original layout</li>
+ * <li>The size and modification time of the files at the last load or write</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The base file is loaded through a {@link MappedCsvReader}, so rows are
+ * decoded straight from the mapped bytes; files larger than
+ * {@code csv.parallel.threshold} bytes are parsed in parallel chunks on the
+ * common fork-join pool.
+ * </p>
+ *
+ * <p>
+ * Inserts are appended to the base file. Updates and deletes are appended to
+ * a {@link ChangeLog} and replayed on top of the base file when loading. Once
+ * the log holds more records than {@code csv.log.compaction.threshold}, a
+ * background task folds it into a new base file.
+ * </p>
+ *
+ * <p>
+ * Partitioned tables answer range and single-partition queries over their
+ * partition key without loading the file: the manifest gives the offsets
+ * of the first and last rows of each partition, and only the rows in
+ * between are decoded.
+ * </p>
+ *
+ * <p>
+ * Entities returned by the table are the cached instances; changes made to
+ * them must be persisted through {@link #update(Entity)}.
+ * </p>
+ *
+ * @param <T> the type of entity stored in the table
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.repository.Repository
+ * @see com.twinker.persistence.utils.CsvHandler
+ * @see com.twinker.persistence.utils.ChangeLog
+ * @see com.twinker.persistence.repository.UnitOfWork
+ */
+class CsvTable<T extends Entity> {
+    private static final Logger logger = Logger.getLogger(CsvTable.class.getName());
+    private static final Map<String, CsvTable<?>> tables = new ConcurrentHashMap<>();
+    private static final int COMPACTION_THRESHOLD = DataConfig.getInt("csv.log.compaction.threshold", 500);
+    private static final int PARALLEL_THRESHOLD = DataConfig.getInt("csv.parallel.threshold", 8 << 20);
+    private static final long PARALLEL_CHUNK = 1 << 20;
+    private static final String PARTITION_INDEX = "#partition";
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "csv-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        UnitOfWork.recover();
+    }
+
+    private final File file;
+    private final Class<T> type;
+    private final CsvHandler csvHandler;
+    private final MappedCsvReader mappedReader;
+    private final ChangeLog changeLog;
+    private final Map<String, T> entities = new LinkedHashMap<>();
+    private final Map<String, SecondaryIndex<T>> indexes = new HashMap<>();
+
+    private Function<T, String> partitionKey;
+    private PartitionManifest manifest;
+
+    private boolean loaded;
+    private long lastModified;
+    private long length;
+    private long logModified;
+    private long logLength;
+    private int logRecords;
+    private boolean compactionScheduled;
+    private long version;
+
+    private CsvTable(String filePath, Class<T> type) {
+        this.file = new File(filePath);
+        this.type = type;
+        this.csvHandler = new CsvHandler(filePath);
+        this.mappedReader = new MappedCsvReader(filePath);
+        this.changeLog = new ChangeLog(filePath);
+    }
+
+    /**
+     * Returns the shared table for a CSV file, creating it on first use.
+     *
+     * @param <T>      the type of entity stored in the file
+     * @param filePath the path to the CSV file
+     * @param type     the class of the entity type
+     * @return the table backed by the file
+     * @throws IllegalStateException if the file is already bound to another type
+     */
+    static <T extends Entity> CsvTable<T> of(String filePath, Class<T> type) {
+        return of(filePath, type, null);
+    }
+
+    /**
+     * Returns the shared table for a CSV file, creating it on first use and
+     * partitioning it by a key derived from each entity.
+     *
+     * @param <T>          the type of entity stored in the file
+     * @param filePath     the path to the CSV file
+     * @param type         the class of the entity type
+     * @param partitionKey the function computing the partition of an entity,
+     *                     or null to leave the table unpartitioned
+     * @return the table backed by the file
+     * @throws IllegalStateException if the file is already bound to another type
+     * @see #partitionBy(Function)
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Entity> CsvTable<T> of(String filePath, Class<T> type, Function<T, String> partitionKey) {
+        String key = new File(filePath).getAbsolutePath();
+        CsvTable<?> table = tables.computeIfAbsent(key, _ -> new CsvTable<>(filePath, type));
+
+        if (table.type != type) {
+            throw new IllegalStateException("File " + filePath + " is already bound to " + table.type.getName());
+        }
+        CsvTable<T> typed = (CsvTable<T>) table;
+        if (partitionKey != null) typed.partitionBy(partitionKey);
+        return typed;
+    }
+
+    /**
+     * Retrieves all entities in file order.
+     *
+     * @return a new list with every entity in the table
+     */
+    synchronized List<T> getAll() {
+        ensureLoaded();
+        return new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Retrieves an entity by its ID.
+     *
+     * @param id the ID of the entity
+     * @return an Optional containing the entity if found
+     */
+    synchronized Optional<T> get(String id) {
+        if (id == null) return Optional.empty();
+        ensureLoaded();
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    /**
+     * Registers a secondary index on the table.
+     * Registering an index with a name that already exists does nothing, so
+     * every repository sharing the table can declare the indexes it uses.
+     *
+     * @param name         the name of the index
+     * @param keyExtractor the function computing the key of an entity
+     */
+    synchronized void addIndex(String name, Function<T, String> keyExtractor) {
+        if (indexes.containsKey(name)) return;
+
+        SecondaryIndex<T> index = new SecondaryIndex<>(keyExtractor);
+        if (loaded) entities.values().forEach(index::put);
+        indexes.put(name, index);
+    }
+
+    /**
+     * Retrieves the entities whose key in an index matches a value.
+     *
+     * @param name the name of the index
+     * @param key  the key to look up
+     * @return a new list with the matching entities, in insertion order
+     * @throws IllegalArgumentException if no index with that name exists
+     */
+    synchronized List<T> findAll(String name, String key) {
+        SecondaryIndex<T> index = indexes.get(name);
+        if (index == null) throw new IllegalArgumentException("No index named " + name);
+        if (key == null) return new ArrayList<>();
+
+        ensureLoaded();
+        return index.get(key);
+    }
+
+    /**
+     * Partitions the table by a key derived from each entity.
+     * Keys must sort in the order of the partitions, like {@code yyyy-MM}
+     * months. Partitioning a table that is already partitioned does nothing.
+     *
+     * @param keyExtractor the function computing the partition of an entity
+     */
+    synchronized void partitionBy(Function<T, String> keyExtractor) {
+        if (partitionKey != null) return;
+
+        partitionKey = keyExtractor;
+        manifest = new PartitionManifest(file.getPath());
+        addIndex(PARTITION_INDEX, keyExtractor);
+    }
+
+    /**
+     * Retrieves the entities of every partition with a key greater than or
+     * equal to the given one.
+     * If the table is in memory the partitions are taken from it; otherwise
+     * only the rows from the first partition in range are read from disk, with
+     * the change log applied on top.
+     *
+     * @param fromKey the key of the first partition to include
+     * @return a new list with the matching entities, ordered by partition
+     * @throws IllegalStateException if the table is not partitioned
+     */
+    synchronized List<T> findFromPartition(String fromKey) {
+        if (partitionKey == null) throw new IllegalStateException("Table " + file.getPath() + " is not partitioned");
+        if (loaded && !changedOnDisk()) return indexes.get(PARTITION_INDEX).getFrom(fromKey);
+
+        indexPartitions();
+        Map<String, T> found = new LinkedHashMap<>();
+        mappedReader.forEach(manifest.startOf(fromKey), (record, _) -> {
+            T obj = decode(record);
+            if (obj != null && inRange(obj, fromKey)) found.put(obj.getId(), obj);
+        });
+        return overlayLog(found, obj -> inRange(obj, fromKey));
+    }
+
+    /**
+     * Gets the keys of every partition of the table.
+     * If the table is not in memory the keys are taken from the manifest and
+     * the change log, without loading the file; a partition whose rows were
+     * all deleted may then still be listed.
+     *
+     * @return a new list with the partition keys, in ascending order
+     * @throws IllegalStateException if the table is not partitioned
+     */
+    synchronized List<String> partitions() {
+        if (partitionKey == null) throw new IllegalStateException("Table " + file.getPath() + " is not partitioned");
+        if (loaded && !changedOnDisk()) return indexes.get(PARTITION_INDEX).keys();
+
+        indexPartitions();
+        SortedSet<String> keys = new TreeSet<>(manifest.keys());
+        for (ChangeLog.Entry entry : changeLog.read()) {
+            if (entry.isDelete()) continue;
+
+            T obj = decode(entry.row());
+            String key = obj == null ? null : partitionKey.apply(obj);
+            if (key != null) keys.add(key);
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Retrieves the entities of a single partition.
+     * If the table is in memory the partition is taken from it; otherwise
+     * only the rows between the first and last row of the partition are read
+     * from disk, with the change log applied on top.
+     *
+     * @param key the key of the partition
+     * @return a new list with the entities of the partition
+     * @throws IllegalStateException if the table is not partitioned
+     */
+    synchronized List<T> findInPartition(String key) {
+        if (partitionKey == null) throw new IllegalStateException("Table " + file.getPath() + " is not partitioned");
+        if (loaded && !changedOnDisk()) return findAll(PARTITION_INDEX, key);
+
+        indexPartitions();
+        Map<String, T> found = new LinkedHashMap<>();
+        mappedReader.forEach(manifest.startOf(key), manifest.endOf(key), (record, _) -> {
+            T obj = decode(record);
+            if (obj != null && key.equals(partitionKey.apply(obj))) found.put(obj.getId(), obj);
+        });
+        return overlayLog(found, obj -> key.equals(partitionKey.apply(obj)));
+    }
+
+    /**
+     * Adds entities to the table and appends them to the end of the file.
+     *
+     * @param objects the entities to add
+     */
+    synchronized void insert(List<T> objects) {
+        apply(objects, List.of(), List.of(), false);
+    }
+
+    /**
+     * Replaces the stored entity with the same ID and records the change in
+     * the log. Does nothing if no entity with that ID exists.
+     *
+     * @param object the updated entity
+     */
+    synchronized void update(T object) {
+        apply(List.of(), List.of(object), List.of(), false);
+    }
+
+    /**
+     * Removes an entity by its ID and records a tombstone in the log.
+     *
+     * @param id the ID of the entity to remove
+     */
+    synchronized void delete(String id) {
+        apply(List.of(), List.of(), List.of(id), false);
+    }
+
+    /**
+     * Applies a batch of changes to the table.
+     * Inserts are appended to the base file with one write, and updates and
+     * deletes are appended to the log with another. Updates of entities that
+     * are not in the table and deletes of missing IDs are ignored.
+     *
+     * <p>
+     * The memory is only changed once both writes succeed. If either fails,
+     * the in-memory copy is discarded instead, so the next access reloads
+     * whatever reached the disk.
+     * </p>
+     *
+     * @param inserts the entities to add
+     * @param updates the entities to replace
+     * @param deletes the IDs of the entities to remove
+     * @param sync    true to force the written rows to disk before returning
+     * @return true if every write succeeded
+     */
+    synchronized boolean apply(List<T> inserts, List<T> updates, List<String> deletes, boolean sync) {
+        ensureLoaded();
+
+        List<String[]> rows = new ArrayList<>(inserts.size());
+        for (T object : inserts) {
+            rows.add(EntityMapper.entityToArray(object));
+        }
+
+        Set<String> present = new HashSet<>();
+        inserts.forEach(object -> present.add(object.getId()));
+
+        List<ChangeLog.Entry> records = new ArrayList<>(updates.size() + deletes.size());
+        List<T> updated = new ArrayList<>(updates.size());
+        for (T object : updates) {
+            if (!entities.containsKey(object.getId()) && !present.contains(object.getId())) continue;
+
+            updated.add(object);
+            records.add(ChangeLog.Entry.upsert(EntityMapper.entityToArray(object)));
+        }
+        List<String> deleted = new ArrayList<>(deletes.size());
+        for (String id : deletes) {
+            if (!entities.containsKey(id) && !present.contains(id)) continue;
+
+            deleted.add(id);
+            records.add(ChangeLog.Entry.delete(id));
+        }
+        if (rows.isEmpty() && records.isEmpty()) return true;
+
+        long offset = file.length();
+        boolean written = csvHandler.appendCSV(rows, sync) && (records.isEmpty() || changeLog.append(records, sync));
+        if (!written) {
+            loaded = false;
+            return false;
+        }
+
+        inserts.forEach(this::put);
+        updated.forEach(this::put);
+        deleted.forEach(this::remove);
+        if (!rows.isEmpty()) recordPartitions(inserts, offset);
+
+        version++;
+        logRecords += records.size();
+        stamp();
+        scheduleCompaction();
+        return true;
+    }
+
+    /**
+     * Gets a number that changes every time the contents of the table change,
+     * whether through this table or because the file was modified on disk.
+     * Callers can compare it to a previous value to know whether data derived
+     * from the table is still current.
+     *
+     * @return the current version of the table
+     */
+    synchronized long version() {
+        ensureLoaded();
+        return version;
+    }
+
+    /**
+     * Discards the in-memory copy so the next access reloads it from disk.
+     */
+    synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * Gets the absolute path of the CSV file backing the table.
+     *
+     * @return the path of the file
+     */
+    String path() {
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * Removes every entity, truncates the file and clears the log.
+     */
+    synchronized void clear() {
+        entities.clear();
+        indexes.values().forEach(SecondaryIndex::clear);
+        loaded = true;
+        version++;
+        if (manifest != null) manifest.reset();
+        csvHandler.writeCSV(new ArrayList<>());
+        changeLog.clear();
+        logRecords = 0;
+        stamp();
+    }
+
+    /**
+     * Folds the log into a new base file.
+     * The base file is replaced atomically before the log is cleared, so a
+     * crash in between only replays records that are already applied.
+     */
+    synchronized void compact() {
+        compactionScheduled = false;
+        ensureLoaded();
+        if (logRecords == 0) return;
+
+        List<String[]> data = new ArrayList<>(entities.size());
+        for (T entity : entities.values()) {
+            data.add(EntityMapper.entityToArray(entity));
+        }
+
+        if (manifest != null) manifest.reset();
+        if (!csvHandler.replaceCSV(data)) return;
+
+        changeLog.clear();
+        logRecords = 0;
+        stamp();
+        if (manifest != null) indexPartitions();
+    }
+
+    /**
+     * Loads the file and replays its log if the table has never been read
+     * or if either file changed on disk since the last load or write.
+     */
+    private void ensureLoaded() {
+        if (loaded && !changedOnDisk()) return;
+
+        entities.clear();
+        if (file.length() >= PARALLEL_THRESHOLD) {
+            for (T obj : mappedReader.readParallel(this::decode, PARALLEL_CHUNK)) {
+                entities.put(obj.getId(), obj);
+            }
+        } else {
+            mappedReader.forEach(record -> {
+                T obj = decode(record);
+                if (obj != null) entities.put(obj.getId(), obj);
+            });
+        }
+
+        List<ChangeLog.Entry> log = changeLog.read();
+        for (ChangeLog.Entry entry : log) {
+            if (entry.isDelete()) {
+                entities.remove(entry.deletedId());
+                continue;
+            }
+            T obj = decode(entry.row());
+            if (obj != null) entities.put(obj.getId(), obj);
+        }
+
+        for (SecondaryIndex<T> index : indexes.values()) {
+            index.clear();
+            entities.values().forEach(index::put);
+        }
+
+        loaded = true;
+        version++;
+        logRecords = log.size();
+        stamp();
+        scheduleCompaction();
+    }
+
+    /**
+     * Stores an entity in memory and in every secondary index.
+     *
+     * @param object the entity to store
+     */
+    private void put(T object) {
+        entities.put(object.getId(), object);
+        for (SecondaryIndex<T> index : indexes.values()) {
+            index.put(object);
+        }
+    }
+
+    /**
+     * Removes an entity from memory and from every secondary index.
+     *
+     * @param id the ID of the entity to remove
+     * @return true if the entity existed
+     */
+    private boolean remove(String id) {
+        if (entities.remove(id) == null) return false;
+
+        for (SecondaryIndex<T> index : indexes.values()) {
+            index.remove(id);
+        }
+        return true;
+    }
+
+    /**
+     * Brings the manifest up to date with the end of the file.
+     * Only the rows past the covered length are read, unless the file shrank
+     * since the manifest was written, in which case it is rebuilt.
+     */
+    private void indexPartitions() {
+        long size = file.length();
+        if (size < manifest.length()) manifest.reset();
+        if (size == manifest.length()) return;
+
+        mappedReader.forEach(manifest.length(), (record, offset) -> {
+            T obj = decode(record);
+            if (obj != null) manifest.record(partitionKey.apply(obj), offset);
+        });
+        manifest.cover(size);
+        manifest.save();
+    }
+
+    /**
+     * Records the partitions of rows just appended to the file.
+     * Every row is recorded as starting somewhere between the offset where
+     * the batch starts and the end of the file. If the manifest did not
+     * cover the file before the append, the rows are left for the next
+     * refresh.
+     *
+     * @param inserts the appended entities
+     * @param offset  the length of the file before the append
+     */
+    private void recordPartitions(List<T> inserts, long offset) {
+        if (manifest == null || manifest.length() != offset) return;
+
+        long end = file.length();
+        for (T object : inserts) {
+            manifest.record(partitionKey.apply(object), offset, end - 1);
+        }
+        manifest.cover(end);
+        manifest.save();
+    }
+
+    /**
+     * Applies the change log on top of entities read from the base file,
+     * keeping only the entities that match a filter.
+     *
+     * @param found   the entities read from the base file, by ID
+     * @param include the filter the logged entities must match
+     * @return a new list with the resulting entities
+     */
+    private List<T> overlayLog(Map<String, T> found, Predicate<T> include) {
+        for (ChangeLog.Entry entry : changeLog.read()) {
+            if (entry.isDelete()) {
+                found.remove(entry.deletedId());
+                continue;
+            }
+            T obj = decode(entry.row());
+            if (obj == null) continue;
+
+            if (include.test(obj)) {
+                found.put(obj.getId(), obj);
+            } else {
+                found.remove(obj.getId());
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Checks whether an entity belongs to a partition in a range.
+     *
+     * @param object  the entity
+     * @param fromKey the key of the first partition in the range
+     * @return true if the partition of the entity is in the range
+     */
+    private boolean inRange(T object, String fromKey) {
+        String key = partitionKey.apply(object);
+        return key != null && key.compareTo(fromKey) >= 0;
+    }
+
+    /**
+     * Maps a row to an entity, logging rows that cannot be mapped.
+     *
+     * @param row the values of the row
+     * @return the entity, or null if the row is invalid
+     */
+    private T decode(String[] row) {
+        return decode(CsvRecord.of(row));
+    }
+
+    /**
+     * Maps a record to an entity, logging records that cannot be mapped.
+     *
+     * @param record the row
+     * @return the entity, or null if the row is invalid
+     */
+    private T decode(CsvRecord record) {
+        try {
+            return EntityMapper.recordToEntity(type, record);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the base file or the log differ from the last recorded state.
+     *
+     * @return true if the files were modified by someone else
+     */
+    private boolean changedOnDisk() {
+        return file.lastModified() != lastModified || file.length() != length
+                || changeLog.lastModified() != logModified || changeLog.length() != logLength;
+    }
+
+    /**
+     * Submits a background compaction once the log reaches the threshold.
+     */
+    private void scheduleCompaction() {
+        if (compactionScheduled || logRecords < COMPACTION_THRESHOLD) return;
+
+        compactionScheduled = true;
+        compactor.execute(this::compact);
+    }
+
+    /**
+     * Records the current size and modification time of the files.
+     */
+    private void stamp() {
+        lastModified = file.lastModified();
+        length = file.length();
+        logModified = changeLog.lastModified();
+        logLength = changeLog.length();
+    }
+}
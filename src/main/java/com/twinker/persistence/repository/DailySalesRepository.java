@@ -0,0 +1,74 @@
+package com.twinker.persistence.repository;
+
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.entity.DailySales;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Repository class for managing daily sales rollups in the Twinker
+ * application.
+ * Extends the generic Repository class to provide rollup-specific storage
+ * and retrieval operations.
+ *
+ * <p>
+ * This repository handles:
+ * <ul>
+ * <li>Basic CRUD operations for daily rollups</li>
+ * <li>Date-based rollup filtering, partitioned by month</li>
+ * <li>Replacing every rollup when they are rebuilt from history</li>
+ * <li>CSV-based persistence of rollup data</li>
+ * </ul>
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.entity.DailySales
+ * @see com.twinker.persistence.repository.Repository
+ */
+public class DailySalesRepository extends Repository<DailySales> {
+
+    /**
+     * Constructs a new DailySalesRepository.
+     * Initializes the repository with the configured daily sales CSV file
+     * path and partitions the rollups by month.
+     */
+    public DailySalesRepository() {
+        super(DataConfig.get("daily_sales.csv.path"), DailySales.class, DailySalesRepository::monthOf);
+    }
+
+    /**
+     * Retrieves the rollups of every day on or after a specified date.
+     *
+     * @param date the first day to include
+     * @return a list of the rollups from that day onwards
+     */
+    public List<DailySales> getDaysSince(LocalDate date) {
+        String since = date.toString();
+
+        return findFromPartition(YearMonth.from(date).toString()).stream()
+                .filter(day -> day.getId().compareTo(since) >= 0)
+                .toList();
+    }
+
+    /**
+     * Replaces every stored rollup with the given ones.
+     *
+     * @param days the new rollups
+     */
+    public void replaceAll(List<DailySales> days) {
+        table().clear();
+        insertAll(days);
+    }
+
+    /**
+     * Gets the partition of a rollup: the {@code yyyy-MM} month of its day.
+     *
+     * @param day the rollup
+     * @return the month of the rollup, or null if it has no valid day
+     */
+    private static String monthOf(DailySales day) {
+        return day.getId() == null || day.getId().length() < 7 ? null : day.getId().substring(0, 7);
+    }
+}
@@ -14,7 +14,7 @@ import java.util.Optional;
  * This repository handles:
  * <ul>
  * <li>Basic CRUD operations for inventory entries</li>
- * <li>Product-based inventory lookups</li>
+ * <li>Product-based inventory lookups through a secondary index</li>
  * <li>Stock level tracking</li>
  * <li>CSV-based persistence of inventory data</li>
  * </ul>
@@ -36,14 +36,12 @@ public class InventoryRepository extends Repository<Inventory> {
 
     /**
      * Retrieves an inventory entry by its associated product ID.
-     * Searches through all inventory entries to find a match.
+     * Looks the entry up in the product ID index instead of scanning the file.
      *
      * @param productId the ID of the product to search for
      * @return an Optional containing the inventory entry if found
      */
     public Optional<Inventory> getByProductId(String productId) {
-        return getAll().stream()
-                .filter(obj -> productId.equals(obj.getProductId()))
-                .findFirst();
+        return findBy("productId", productId);
     }
 }
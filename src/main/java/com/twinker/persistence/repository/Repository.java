@@ -1,14 +1,14 @@
 package com.twinker.persistence.repository;
 
 import com.twinker.domain.entity.Entity;
-import com.twinker.persistence.utils.CsvHandler;
-import com.twinker.persistence.utils.EntityMapper;
+import com.twinker.domain.entity.Indexed;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * Abstract base class for all repositories in the Twinker application.
@@ -19,6 +19,8 @@ import java.util.logging.Logger;
  * <ul>
  * <li>Basic CRUD operations for entities</li>
  * <li>CSV file-based persistence</li>
+ * <li>A shared in-memory copy of each file with an ID index</li>
+ * <li>Secondary indexes on fields marked with {@link Indexed}</li>
  * <li>Generic type support for different entities</li>
  * <li>Error logging and exception handling</li>
  * </ul>
@@ -28,24 +30,86 @@ import java.util.logging.Logger;
  *
  * @author Twinker Development Team
  * @see com.twinker.domain.entity.Entity
- * @see com.twinker.persistence.utils.CsvHandler
- * @see com.twinker.persistence.utils.EntityMapper
+ * @see com.twinker.domain.entity.Indexed
+ * @see com.twinker.persistence.repository.CsvTable
  */
 public abstract class Repository<T extends Entity> {
-    private static final Logger logger = Logger.getLogger(Repository.class.getName());
+    private static final ClassValue<Map<String, Function<Entity, String>>> indexedFields = new ClassValue<>() {
+        @Override
+        protected Map<String, Function<Entity, String>> computeValue(Class<?> type) {
+            return resolveIndexedFields(type);
+        }
+    };
 
-    private final CsvHandler csvHandler;
-    private final Class<T> type;
+    private final CsvTable<T> table;
 
     /**
      * Constructs a new Repository for the specified entity type.
+     * Repositories pointing at the same file share the same in-memory table.
+     * Every field of the entity marked with {@link Indexed} gets an index
+     * named after the field.
      *
      * @param filePath the path to the CSV file for storage
      * @param type     the class of the entity type
      */
     public Repository(String filePath, Class<T> type) {
-        this.csvHandler = new CsvHandler(filePath);
-        this.type = type;
+        this(filePath, type, null);
+    }
+
+    /**
+     * Constructs a new Repository for the specified entity type, with its
+     * file partitioned by a key derived from each entity.
+     * Subclasses use this constructor when most queries only need a recent
+     * range of the data.
+     *
+     * @param filePath     the path to the CSV file for storage
+     * @param type         the class of the entity type
+     * @param partitionKey the function computing the partition of an
+     *                     entity, or null for no partitions; keys must sort
+     *                     in the order of the partitions
+     */
+    protected Repository(String filePath, Class<T> type, Function<T, String> partitionKey) {
+        this.table = CsvTable.of(filePath, type, partitionKey);
+        indexedFields.get(type).forEach((field, keyExtractor) -> table.addIndex(field, keyExtractor::apply));
+    }
+
+    /**
+     * Gets the table backing this repository.
+     *
+     * @return the shared table for the repository's file
+     */
+    CsvTable<T> table() {
+        return table;
+    }
+
+    /**
+     * Retrieves the entities of every partition from a key onwards, reading
+     * only those partitions if the file is not in memory.
+     *
+     * @param fromKey the key of the first partition to include
+     * @return a list of the entities in those partitions
+     */
+    protected List<T> findFromPartition(String fromKey) {
+        return table.findFromPartition(fromKey);
+    }
+
+    /**
+     * Gets the keys of every partition of the repository's file.
+     *
+     * @return a list of the partition keys, in ascending order
+     */
+    protected List<String> partitions() {
+        return table.partitions();
+    }
+
+    /**
+     * Retrieves the entities of a single partition.
+     *
+     * @param key the key of the partition
+     * @return a list of the entities in the partition
+     */
+    protected List<T> findInPartition(String key) {
+        return table.findInPartition(key);
     }
 
     /**
@@ -54,18 +118,41 @@ public abstract class Repository<T extends Entity> {
      * @return a list of all entities
      */
     public List<T> getAll() {
-        List<T> list = new ArrayList<>();
-        List<String[]> data = csvHandler.readCSV();
-
-        for (String[] row : data) {
-            try {
-                T obj = EntityMapper.arrayToEntity(type, row);
-                list.add(obj);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, e.toString());
-            }
-        }
-        return list;
+        return table.getAll();
+    }
+
+    /**
+     * Retrieves the first entity whose indexed field has a value.
+     *
+     * @param field the name of a field marked with {@link Indexed}
+     * @param value the value to look up
+     * @return an Optional containing the first matching entity if found
+     * @throws IllegalArgumentException if the field is not indexed
+     */
+    public Optional<T> findBy(String field, Object value) {
+        return findAllBy(field, value).stream().findFirst();
+    }
+
+    /**
+     * Retrieves every entity whose indexed field has a value.
+     *
+     * @param field the name of a field marked with {@link Indexed}
+     * @param value the value to look up
+     * @return a list of the matching entities, in insertion order
+     * @throws IllegalArgumentException if the field is not indexed
+     */
+    public List<T> findAllBy(String field, Object value) {
+        return table.findAll(field, value == null ? null : value.toString());
+    }
+
+    /**
+     * Gets a number that changes every time an entity of the repository is
+     * added, updated or removed, or the file is modified on disk.
+     *
+     * @return the current version of the repository's data
+     */
+    public long version() {
+        return table.version();
     }
 
     /**
@@ -75,13 +162,7 @@ public abstract class Repository<T extends Entity> {
      * @return an Optional containing the entity if found
      */
     public Optional<T> getById(String id) {
-        List<T> values = getAll();
-
-        if (id == null) return Optional.empty();
-
-        return values.stream()
-                .filter(value -> id.equals(value.getId()))
-                .findFirst();
+        return table.get(id);
     }
 
     /**
@@ -90,22 +171,17 @@ public abstract class Repository<T extends Entity> {
      * @param object the entity to insert
      */
     public void insert(T object) {
-        List<String[]> data = csvHandler.readCSV();
-        data.add(EntityMapper.entityToArray(object));
-        csvHandler.writeCSV(data);
+        table.insert(List.of(object));
     }
 
     /**
      * Inserts multiple entities into the repository.
+     * All the entities are written with a single append to the file.
      *
      * @param objects the list of entities to insert
      */
     public void insertAll(List<T> objects) {
-        List<String[]> data = csvHandler.readCSV();
-        for (T object : objects) {
-            data.add(EntityMapper.entityToArray(object));
-        }
-        csvHandler.writeCSV(data);
+        table.insert(objects);
     }
 
     /**
@@ -114,16 +190,7 @@ public abstract class Repository<T extends Entity> {
      * @param object the entity to update
      */
     public void update(T object) {
-        List<T> data = getAll();
-        List<String[]> newData = new ArrayList<>();
-        for (T datum : data) {
-            if (object.getId().equals(datum.getId())) {
-                newData.add(EntityMapper.entityToArray(object));
-            } else {
-                newData.add(EntityMapper.entityToArray(datum));
-            }
-        }
-        csvHandler.writeCSV(newData);
+        table.update(object);
     }
 
     /**
@@ -141,7 +208,7 @@ public abstract class Repository<T extends Entity> {
      * @param object a sample object of the entity type (unused)
      */
     public void deleteAll(T object) {
-        csvHandler.writeCSV(new ArrayList<>());
+        table.clear();
     }
 
     /**
@@ -151,9 +218,7 @@ public abstract class Repository<T extends Entity> {
      * @return an Optional containing the entity if found
      */
     public Optional<T> searchById(String id) {
-        return getAll().stream()
-                .filter(obj -> id.equals(obj.getId()))
-                .findFirst();
+        return table.get(id);
     }
 
     /**
@@ -162,12 +227,39 @@ public abstract class Repository<T extends Entity> {
      * @param id the ID of the entity to delete
      */
     public void deleteById(String id) {
-        List<String[]> data = new ArrayList<>();
-        for (T obj : getAll()) {
-            if (!id.equals(obj.getId())) {
-                data.add(EntityMapper.entityToArray(obj));
+        table.delete(id);
+    }
+
+    /**
+     * Resolves the fields of an entity class marked with {@link Indexed}
+     * into functions reading their value as a string.
+     *
+     * @param type the entity class
+     * @return the key functions indexed by field name
+     */
+    private static Map<String, Function<Entity, String>> resolveIndexedFields(Class<?> type) {
+        Map<String, Function<Entity, String>> fields = new LinkedHashMap<>();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            for (Field field : type.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Indexed.class)) continue;
+
+                field.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(field)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                fields.put(field.getName(), entity -> {
+                    try {
+                        Object value = getter.invokeExact((Object) entity);
+                        return value == null ? null : value.toString();
+                    } catch (Throwable e) {
+                        throw new RuntimeException("Error reading the indexed field " + field.getName(), e);
+                    }
+                });
             }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Error resolving the indexed fields of " + type.getName(), e);
         }
-        csvHandler.writeCSV(data);
+        return Collections.unmodifiableMap(fields);
     }
 }
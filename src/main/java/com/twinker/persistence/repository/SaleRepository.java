@@ -16,7 +16,7 @@ import java.util.List;
  * This repository handles:
  * <ul>
  * <li>Basic CRUD operations for sales</li>
- * <li>Bill-based sale filtering</li>
+ * <li>Bill-based sale lookups through a secondary index</li>
  * <li>Batch sale registration</li>
  * <li>CSV-based persistence of sale data</li>
  * </ul>
@@ -39,32 +39,48 @@ public class SaleRepository extends Repository<Sale> {
 
     /**
      * Retrieves all sales associated with a specific bill.
-     * Filters sales based on the bill ID.
+     * Looks the sales up in the bill ID index instead of scanning the file.
      *
      * @param billId the ID of the bill to search for
      * @return a list of sales associated with the specified bill
      */
     public List<Sale> getSalesByBillId(String billId) {
-        List<Sale> sales = getAll();
-        List<Sale> salesList = new ArrayList<>();
-
-        for (Sale sale : sales) {
-            if (billId.equals(sale.getBillId())) salesList.add(sale);
-        }
-
-        return salesList;
+        return findAllBy("billId", billId);
     }
 
     /**
      * Registers multiple sales entries in the repository.
-     * Converts SaleEntry objects to Sale entities and persists them.
+     * Converts SaleEntry objects to Sale entities and persists them
+     * with a single append to the sales file.
      *
      * @param sales the list of sale entries to register
      */
     public void registerSales(List<SaleEntry> sales) {
+        insertAll(toSales(sales));
+    }
+
+    /**
+     * Stages multiple sales entries in a unit of work.
+     * The sales are persisted when the unit of work is committed.
+     *
+     * @param sales      the list of sale entries to register
+     * @param unitOfWork the unit of work that will persist the sales
+     */
+    public void registerSales(List<SaleEntry> sales, UnitOfWork unitOfWork) {
+        unitOfWork.insertAll(this, toSales(sales));
+    }
+
+    /**
+     * Extracts the Sale entities from a list of sale entries.
+     *
+     * @param sales the list of sale entries
+     * @return the sales in the same order
+     */
+    private List<Sale> toSales(List<SaleEntry> sales) {
+        List<Sale> saleList = new ArrayList<>(sales.size());
         for (SaleEntry saleEntry : sales) {
-            Sale sale = saleEntry.sale();
-            insert(sale);
+            saleList.add(saleEntry.sale());
         }
+        return saleList;
     }
 }
@@ -0,0 +1,122 @@
+package com.twinker.persistence.repository;
+
+import com.twinker.domain.entity.Entity;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Hash index from a key derived from each entity to the entities sharing it.
+ * Used by {@link CsvTable} to answer lookups by a field other than the ID
+ * without scanning the whole table.
+ *
+ * <p>
+ * The index remembers the key each entity was indexed under, so entities
+ * that were modified in place before being updated are moved to their new
+ * key correctly.
+ * </p>
+ *
+ * @param <T> the type of entity indexed
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.repository.CsvTable
+ */
+class SecondaryIndex<T extends Entity> {
+    private final Function<T, String> keyExtractor;
+    private final Map<String, Map<String, T>> entitiesByKey = new HashMap<>();
+    private final Map<String, String> keyById = new HashMap<>();
+
+    /**
+     * Constructs a new empty index.
+     *
+     * @param keyExtractor the function computing the key of an entity;
+     *                     entities with a null key are not indexed
+     */
+    SecondaryIndex(Function<T, String> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Adds an entity to the index, or moves it if its key changed.
+     *
+     * @param entity the entity to index
+     */
+    void put(T entity) {
+        String key = keyExtractor.apply(entity);
+        if (key != null && key.equals(keyById.get(entity.getId()))) {
+            entitiesByKey.get(key).put(entity.getId(), entity);
+            return;
+        }
+
+        remove(entity.getId());
+        if (key == null) return;
+
+        entitiesByKey.computeIfAbsent(key, _ -> new LinkedHashMap<>()).put(entity.getId(), entity);
+        keyById.put(entity.getId(), key);
+    }
+
+    /**
+     * Removes an entity from the index.
+     *
+     * @param id the ID of the entity to remove
+     */
+    void remove(String id) {
+        String key = keyById.remove(id);
+        if (key == null) return;
+
+        Map<String, T> entities = entitiesByKey.get(key);
+        entities.remove(id);
+        if (entities.isEmpty()) entitiesByKey.remove(key);
+    }
+
+    /**
+     * Gets the entities indexed under a key, in the order they were indexed.
+     *
+     * @param key the key to look up
+     * @return a new list with the matching entities
+     */
+    List<T> get(String key) {
+        Map<String, T> entities = entitiesByKey.get(key);
+        return entities == null ? new ArrayList<>() : new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Gets the entities indexed under every key greater than or equal to the
+     * given one, ordered by key and then by the order they were indexed.
+     *
+     * @param fromKey the lowest key to include
+     * @return a new list with the matching entities
+     */
+    List<T> getFrom(String fromKey) {
+        List<String> keys = new ArrayList<>();
+        for (String key : entitiesByKey.keySet()) {
+            if (key.compareTo(fromKey) >= 0) keys.add(key);
+        }
+        Collections.sort(keys);
+
+        List<T> found = new ArrayList<>();
+        for (String key : keys) {
+            found.addAll(entitiesByKey.get(key).values());
+        }
+        return found;
+    }
+
+    /**
+     * Gets every key with at least one entity, in ascending order.
+     *
+     * @return a new sorted list of the keys
+     */
+    List<String> keys() {
+        List<String> keys = new ArrayList<>(entitiesByKey.keySet());
+        Collections.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Removes every entity from the index.
+     */
+    void clear() {
+        entitiesByKey.clear();
+        keyById.clear();
+    }
+}
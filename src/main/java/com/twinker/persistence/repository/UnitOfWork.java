@@ -0,0 +1,309 @@
+package com.twinker.persistence.repository;
+
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.entity.Entity;
+import com.twinker.persistence.utils.ChangeLog;
+import com.twinker.persistence.utils.CsvHandler;
+import com.twinker.persistence.utils.EntityMapper;
+
+import java.io.File;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Groups changes to several repositories into a single atomic commit.
+ * Changes are collected in memory and written together when
+ * {@link #commit()} is called.
+ *
+ * <p>
+ * A commit works in three steps:
+ * <ul>
+ * <li>Every change is written to a journal file that is forced to disk and
+ * atomically renamed into place; this is the commit point</li>
+ * <li>The changes are applied to each repository with one append per file</li>
+ * <li>The journal is deleted once every file is stored on disk</li>
+ * </ul>
+ * If the process stops between the first and the last step, the journal is
+ * replayed the next time a repository is opened; if a write fails in the
+ * second step, it is replayed right away, and no new journal is written
+ * while one is still pending. Either every change of the unit is visible or
+ * none is.
+ * </p>
+ *
+ * <p>
+ * Data derived from the repositories, like in-memory aggregates, is updated
+ * by actions registered with {@link #afterCommit(Runnable)}. They run only
+ * once every change is stored, and can use {@link #advance(Repository, long)}
+ * to tell whether the unit was the only change to a repository they follow;
+ * if it was not, they are left stale and rebuild themselves from the files.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.repository.Repository
+ * @see com.twinker.persistence.utils.ChangeLog
+ */
+public class UnitOfWork {
+    private static final Logger logger = Logger.getLogger(UnitOfWork.class.getName());
+    private static final String JOURNAL_PATH = DataConfig.get("journal.path");
+    private static final String INSERT = "I";
+    private static final String UPDATE = "U";
+    private static final String DELETE = "D";
+
+    private final Map<CsvTable<?>, Changes<?>> changes = new LinkedHashMap<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final Map<CsvTable<?>, long[]> versions = new HashMap<>();
+
+    /**
+     * Changes staged for a single table.
+     *
+     * @param <T> the type of entity stored in the table
+     */
+    private static final class Changes<T extends Entity> {
+        private final CsvTable<T> table;
+        private final List<T> inserts = new ArrayList<>();
+        private final List<T> updates = new ArrayList<>();
+        private final List<String> deletes = new ArrayList<>();
+
+        private Changes(CsvTable<T> table) {
+            this.table = table;
+        }
+
+        /**
+         * Applies the changes to the table.
+         *
+         * @param versions where to record the version of the table before and
+         *                 after the changes
+         * @return true if every write succeeded
+         */
+        private boolean apply(Map<CsvTable<?>, long[]> versions) {
+            long before = table.version();
+            boolean applied = table.apply(inserts, updates, deletes, true);
+            versions.put(table, new long[]{before, table.version()});
+            return applied;
+        }
+
+        private boolean isEmpty() {
+            return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+        }
+    }
+
+    /**
+     * Stages the insertion of an entity.
+     *
+     * @param <T>        the type of entity
+     * @param repository the repository the entity belongs to
+     * @param object     the entity to insert
+     */
+    public <T extends Entity> void insert(Repository<T> repository, T object) {
+        changesFor(repository).inserts.add(object);
+    }
+
+    /**
+     * Stages the insertion of several entities.
+     *
+     * @param <T>        the type of entity
+     * @param repository the repository the entities belong to
+     * @param objects    the entities to insert
+     */
+    public <T extends Entity> void insertAll(Repository<T> repository, List<T> objects) {
+        changesFor(repository).inserts.addAll(objects);
+    }
+
+    /**
+     * Stages the update of an entity.
+     *
+     * @param <T>        the type of entity
+     * @param repository the repository the entity belongs to
+     * @param object     the entity to update
+     */
+    public <T extends Entity> void update(Repository<T> repository, T object) {
+        changesFor(repository).updates.add(object);
+    }
+
+    /**
+     * Stages the deletion of an entity by its ID.
+     *
+     * @param <T>        the type of entity
+     * @param repository the repository the entity belongs to
+     * @param id         the ID of the entity to delete
+     */
+    public <T extends Entity> void deleteById(Repository<T> repository, String id) {
+        changesFor(repository).deletes.add(id);
+    }
+
+    /**
+     * Registers an action to run after the unit is committed, once every
+     * change is stored on disk. Actions run in registration order and are
+     * skipped if any write fails. An action that throws is logged and does
+     * not stop the others.
+     *
+     * @param action the action to run
+     */
+    public void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    /**
+     * Moves a version of a repository past the changes of this unit.
+     * Meant for actions registered with {@link #afterCommit(Runnable)} that
+     * keep data derived from the repository, along with the version it was
+     * derived from.
+     *
+     * @param repository the repository
+     * @param version    a version of the repository seen before the commit
+     * @return the version of the repository after the commit, if it had the
+     * given version right before it and nothing but this unit changed it
+     * since; -1 otherwise, or if the unit did not touch the repository
+     */
+    public long advance(Repository<?> repository, long version) {
+        CsvTable<?> table = repository.table();
+        long[] transition = versions.get(table);
+        if (transition == null || transition[0] != version) return -1;
+
+        long expected = changes.get(table).isEmpty() ? version : version + 1;
+        return transition[1] == expected ? transition[1] : -1;
+    }
+
+    /**
+     * Writes every staged change atomically, runs the registered actions and
+     * clears the unit.
+     * A journal left behind by an earlier commit is replayed first. If a
+     * change cannot be applied after the journal is written, the journal is
+     * replayed so every change of the unit is stored anyway, and the tables
+     * are reloaded from disk; the registered actions do not run in that case,
+     * so derived data rebuilds itself from the files.
+     *
+     * @throws IllegalStateException if a previous journal cannot be replayed,
+     *                               if the journal cannot be written, or if
+     *                               it cannot be replayed after a failed
+     *                               write; in the first two cases no change
+     *                               is applied, in the last one the journal
+     *                               is kept for the next commit or restart
+     */
+    public void commit() {
+        if (changes.isEmpty()) return;
+
+        if (!recover()) {
+            changes.keySet().forEach(CsvTable::invalidate);
+            clear();
+            throw new IllegalStateException("A previous transaction journal is still pending at the path: " + JOURNAL_PATH);
+        }
+
+        CsvHandler journal = new CsvHandler(JOURNAL_PATH);
+        if (!journal.replaceCSV(journalRows())) {
+            changes.keySet().forEach(CsvTable::invalidate);
+            clear();
+            throw new IllegalStateException("Error writing the transaction journal to the path: " + JOURNAL_PATH);
+        }
+
+        boolean applied = true;
+        for (Changes<?> tableChanges : changes.values()) {
+            applied &= tableChanges.apply(versions);
+        }
+
+        if (!applied) {
+            boolean replayed = recover();
+            changes.keySet().forEach(CsvTable::invalidate);
+            clear();
+            if (!replayed) {
+                throw new IllegalStateException("Error applying the transaction, journal pending at the path: " + JOURNAL_PATH);
+            }
+            return;
+        }
+
+        journal.deleteCSV();
+        for (Runnable action : afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error updating data derived from a commit: " + e);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Replays a journal left behind by an interrupted or failed commit.
+     * Inserts and updates are replayed as upserts and deletes as tombstones
+     * in the change log of each file, so changes that were already applied
+     * are simply overwritten with the same content.
+     *
+     * @return true if no journal is left pending, false if one could not be
+     * replayed
+     */
+    static boolean recover() {
+        if (JOURNAL_PATH == null || !new File(JOURNAL_PATH).exists()) return true;
+
+        CsvHandler journal = new CsvHandler(JOURNAL_PATH);
+        Map<String, List<ChangeLog.Entry>> entries = new LinkedHashMap<>();
+
+        for (String[] row : journal.readCSV()) {
+            if (row.length < 3) continue;
+
+            List<ChangeLog.Entry> fileEntries = entries.computeIfAbsent(row[0], _ -> new ArrayList<>());
+            if (DELETE.equals(row[1])) {
+                fileEntries.add(ChangeLog.Entry.delete(row[2]));
+            } else {
+                fileEntries.add(ChangeLog.Entry.upsert(Arrays.copyOfRange(row, 2, row.length)));
+            }
+        }
+
+        boolean replayed = true;
+        for (Map.Entry<String, List<ChangeLog.Entry>> fileEntries : entries.entrySet()) {
+            replayed &= new ChangeLog(fileEntries.getKey()).append(fileEntries.getValue(), true);
+        }
+
+        if (replayed) journal.deleteCSV();
+        if (new File(JOURNAL_PATH).exists()) {
+            logger.log(Level.SEVERE, "Error replaying the transaction journal at " + JOURNAL_PATH);
+            return false;
+        }
+        logger.log(Level.INFO, "Recovered interrupted transaction from " + JOURNAL_PATH);
+        return true;
+    }
+
+    /**
+     * Encodes every staged change as a journal row.
+     * Each row holds the file path, the operation and the entity data.
+     *
+     * @return the rows of the journal
+     */
+    private List<String[]> journalRows() {
+        List<String[]> rows = new ArrayList<>();
+
+        for (Changes<?> tableChanges : changes.values()) {
+            String path = tableChanges.table.path();
+            for (Entity object : tableChanges.inserts) {
+                rows.add(journalRow(path, INSERT, EntityMapper.entityToArray(object)));
+            }
+            for (Entity object : tableChanges.updates) {
+                rows.add(journalRow(path, UPDATE, EntityMapper.entityToArray(object)));
+            }
+            for (String id : tableChanges.deletes) {
+                rows.add(new String[]{path, DELETE, id});
+            }
+        }
+        return rows;
+    }
+
+    private void clear() {
+        changes.clear();
+        afterCommit.clear();
+        versions.clear();
+    }
+
+    private static String[] journalRow(String path, String operation, String[] data) {
+        String[] row = new String[data.length + 2];
+        row[0] = path;
+        row[1] = operation;
+        System.arraycopy(data, 0, row, 2, data.length);
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Entity> Changes<T> changesFor(Repository<T> repository) {
+        CsvTable<T> table = repository.table();
+        return (Changes<T>) changes.computeIfAbsent(table, _ -> new Changes<>(table));
+    }
+}
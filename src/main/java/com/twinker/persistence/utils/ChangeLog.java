@@ -0,0 +1,151 @@
+package com.twinker.persistence.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only change log kept next to a CSV file.
+ * Updates and deletes are recorded as small records instead of rewriting
+ * the whole file, and are folded back into it during compaction.
+ *
+ * <p>
+ * Each line of the log is one record:
+ * <ul>
+ * <li>{@code U,<fields...>} stores the full row of an inserted or updated entity</li>
+ * <li>{@code D,<id>} marks the entity with that ID as deleted</li>
+ * </ul>
+ * Records are replayed in order on top of the base file.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.CsvHandler
+ */
+public class ChangeLog {
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+
+    private final File file;
+    private final CsvHandler csvHandler;
+
+    /**
+     * Represents a single record of the log.
+     *
+     * @param row       the full row of the entity, or null for tombstones
+     * @param deletedId the ID of the deleted entity, or null for upserts
+     */
+    public record Entry(String[] row, String deletedId) {
+
+        /**
+         * Checks whether this record is a tombstone.
+         *
+         * @return true if the record marks a deletion
+         */
+        public boolean isDelete() {
+            return row == null;
+        }
+
+        /**
+         * Creates a record holding the new content of an entity.
+         *
+         * @param row the full row of the entity
+         * @return the upsert record
+         */
+        public static Entry upsert(String[] row) {
+            return new Entry(row, null);
+        }
+
+        /**
+         * Creates a tombstone for an entity.
+         *
+         * @param id the ID of the deleted entity
+         * @return the delete record
+         */
+        public static Entry delete(String id) {
+            return new Entry(null, id);
+        }
+    }
+
+    /**
+     * Constructs a new ChangeLog for the specified CSV file.
+     * The log is stored in the same directory with the {@code .log} suffix.
+     *
+     * @param filePath the path to the CSV file the log belongs to
+     */
+    public ChangeLog(String filePath) {
+        String logPath = filePath + ".log";
+        this.file = new File(logPath);
+        this.csvHandler = new CsvHandler(logPath);
+    }
+
+    /**
+     * Reads every record of the log in the order they were written.
+     * Malformed records are skipped.
+     *
+     * @return the list of log entries
+     */
+    public List<Entry> read() {
+        List<Entry> entries = new ArrayList<>();
+        if (!file.exists()) return entries;
+
+        for (String[] record : csvHandler.readCSV()) {
+            if (record.length < 2) continue;
+
+            if (UPSERT.equals(record[0])) {
+                entries.add(Entry.upsert(Arrays.copyOfRange(record, 1, record.length)));
+            } else if (DELETE.equals(record[0])) {
+                entries.add(Entry.delete(record[1]));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Appends records to the log with a single write.
+     *
+     * @param entries the records to append, in order
+     * @param sync    true to wait until the records are stored on disk
+     * @return true if the records were appended, false if an error occurred
+     */
+    public boolean append(List<Entry> entries, boolean sync) {
+        List<String[]> records = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries) {
+            if (entry.isDelete()) {
+                records.add(new String[]{DELETE, entry.deletedId()});
+            } else {
+                String[] record = new String[entry.row().length + 1];
+                record[0] = UPSERT;
+                System.arraycopy(entry.row(), 0, record, 1, entry.row().length);
+                records.add(record);
+            }
+        }
+        return csvHandler.appendCSV(records, sync);
+    }
+
+    /**
+     * Removes every record from the log.
+     */
+    public void clear() {
+        if (file.exists()) csvHandler.writeCSV(new ArrayList<>());
+    }
+
+    /**
+     * Gets the modification time of the log file.
+     *
+     * @return the modification time, or 0 if the log does not exist
+     */
+    public long lastModified() {
+        return file.lastModified();
+    }
+
+    /**
+     * Gets the size of the log file in bytes.
+     *
+     * @return the size of the log, or 0 if the log does not exist
+     */
+    public long length() {
+        return file.length();
+    }
+}
@@ -1,6 +1,11 @@
 package com.twinker.persistence.utils;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -15,6 +20,9 @@ import java.util.logging.Logger;
  * <ul>
  * <li>Reading CSV files line by line</li>
  * <li>Writing data to CSV files</li>
+ * <li>Appending rows without rewriting the file</li>
+ * <li>Durable replacement of the whole file</li>
+ * <li>Optionally forcing appended rows to disk</li>
  * <li>Error handling and logging for file operations</li>
  * <li>Comma-separated value parsing and formatting</li>
  * </ul>
@@ -73,4 +81,116 @@ public class CsvHandler {
             logger.log(Level.SEVERE, "Error writing the CSV file to the path: " + filePath);
         }
     }
+
+    /**
+     * Replaces the CSV file with the given data.
+     * The rows are written to a temporary file that is forced to disk and then
+     * moved over the original, so readers see either the old or the new
+     * content, never a partial file.
+     *
+     * @param datos the list of string arrays to write to the file,
+     *              where each array represents a row
+     * @return true if the file was replaced, false if an error occurred
+     */
+    public boolean replaceCSV(List<String[]> datos) {
+        Path target = Path.of(filePath);
+        Path temp = Path.of(filePath + ".tmp");
+
+        try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(fos, Charset.defaultCharset()))) {
+            for (String[] row : datos) {
+                bw.write(String.join(",", row));
+                bw.newLine();
+            }
+            bw.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error writing the temporary CSV file for the path: " + filePath);
+            return false;
+        }
+
+        try {
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error replacing the CSV file at the path: " + filePath);
+            return false;
+        }
+    }
+
+    /**
+     * Appends data to the end of the CSV file.
+     * The rows are joined into a single block and written at once, so the
+     * cost does not depend on the size of the file and a batch of rows costs
+     * one write. A line break is added first if the file does not end with one.
+     *
+     * @param datos the list of string arrays to append to the file,
+     *              where each array represents a row
+     */
+    public void appendCSV(List<String[]> datos) {
+        appendCSV(datos, false);
+    }
+
+    /**
+     * Appends data to the end of the CSV file, optionally forcing it to disk
+     * before returning.
+     *
+     * @param datos the list of string arrays to append to the file,
+     *              where each array represents a row
+     * @param sync  true to wait until the rows are stored on disk
+     * @return true if the rows were appended, false if an error occurred
+     */
+    public boolean appendCSV(List<String[]> datos, boolean sync) {
+        if (datos.isEmpty()) return true;
+
+        try {
+            StringBuilder block = new StringBuilder();
+            if (!endsWithNewLine()) block.append(System.lineSeparator());
+            for (String[] row : datos) {
+                block.append(String.join(",", row)).append(System.lineSeparator());
+            }
+
+            try (FileOutputStream fos = new FileOutputStream(filePath, true);
+                 Writer writer = new OutputStreamWriter(fos, Charset.defaultCharset())) {
+                writer.write(block.toString());
+                writer.flush();
+                if (sync) fos.getFD().sync();
+            }
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error appending to the CSV file at the path: " + filePath);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the CSV file if it exists.
+     */
+    public void deleteCSV() {
+        try {
+            Files.deleteIfExists(Path.of(filePath));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error deleting the CSV file at the path: " + filePath);
+        }
+    }
+
+    /**
+     * Checks whether the file is empty or its last byte is a line break.
+     *
+     * @return true if new rows can be appended directly
+     * @throws IOException if the file cannot be read
+     */
+    private boolean endsWithNewLine() throws IOException {
+        File file = new File(filePath);
+        if (!file.exists() || file.length() == 0) return true;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.twinker.persistence.utils;
+
+/**
+ * Read-only view of a single CSV row.
+ * Lets codecs read typed values directly, so implementations backed by raw
+ * bytes only create strings for the text columns that are actually read.
+ *
+ * <p>
+ * Missing trailing columns read as null or zero, and text columns holding the
+ * {@link #NULL} marker read as null.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.MappedCsvReader
+ * @see com.twinker.persistence.codec.Codec
+ */
+public interface CsvRecord {
+    /** Marker stored in the CSV files for null text values */
+    String NULL = "null-value";
+
+    /**
+     * Gets the number of columns in the row.
+     *
+     * @return the number of columns
+     */
+    int size();
+
+    /**
+     * Gets the raw value of a column.
+     *
+     * @param index the column index
+     * @return the raw value of the column
+     * @throws IndexOutOfBoundsException if the column does not exist
+     */
+    String get(int index);
+
+    /**
+     * Reads a text column, turning the null marker into null.
+     *
+     * @param index the column index
+     * @return the text value, or null if it is missing or marked as null
+     */
+    default String text(int index) {
+        if (index >= size()) return null;
+        String value = get(index);
+        return NULL.equals(value) ? null : value;
+    }
+
+    /**
+     * Reads an integer column.
+     *
+     * @param index the column index
+     * @return the integer value, or 0 if the column is missing
+     */
+    default int integer(int index) {
+        return index < size() ? Integer.parseInt(get(index)) : 0;
+    }
+
+    /**
+     * Reads a decimal column.
+     *
+     * @param index the column index
+     * @return the decimal value, or 0 if the column is missing
+     */
+    default double decimal(int index) {
+        return index < size() ? Double.parseDouble(get(index)) : 0;
+    }
+
+    /**
+     * Wraps an already split row.
+     *
+     * @param row the values of the row
+     * @return a record view of the row
+     */
+    static CsvRecord of(String[] row) {
+        return new CsvRecord() {
+            @Override
+            public int size() {
+                return row.length;
+            }
+
+            @Override
+            public String get(int index) {
+                return row[index];
+            }
+        };
+    }
+}
@@ -1,11 +1,17 @@
 package com.twinker.persistence.utils;
 
 import com.twinker.domain.entity.Entity;
+import com.twinker.persistence.codec.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
 
 /**
- * Utility class for mapping between entities and arrays using reflection.
+ * Utility class for mapping between entities and arrays.
  * This class provides functionality to convert entity objects to string arrays
  * and vice versa, supporting the CSV-based persistence layer.
  *
@@ -16,46 +22,84 @@ import java.lang.reflect.Field;
  * <li>String array to entity conversion</li>
  * <li>Automatic type casting for primitive types</li>
  * <li>Null value handling</li>
- * <li>Reflection-based field access</li>
+ * <li>Hand-written codecs with a fixed column order for the domain entities</li>
+ * <li>Per-class mappings resolved once and cached for other entities</li>
  * </ul>
  * </p>
  *
+ * <p>
+ * Entities with a registered {@link Codec} are mapped through it with direct
+ * constructor and getter calls. The columns of each codec are checked against
+ * the fields of its entity when this class is loaded, so adding or renaming a
+ * field without updating the codec fails at startup instead of silently
+ * dropping data.
+ * </p>
+ *
+ * <p>
+ * Other entities fall back to a mapping built the first time the class is
+ * used: its declared fields are resolved into method handles with a parser
+ * and a formatter for each column, so no reflection lookups happen per row.
+ * </p>
+ *
  * @author Twinker Development Team
  * @see com.twinker.domain.entity.Entity
+ * @see com.twinker.persistence.codec.Codec
  */
 public class EntityMapper {
-    private static final String NULL = "null-value";
+    private static final String NULL = CsvRecord.NULL;
+
+    private static final Map<Class<?>, Codec<?>> codecs = register(
+            new BillCodec(),
+            new ClientCodec(),
+            new DailySalesCodec(),
+            new InventoryCodec(),
+            new ProductCodec(),
+            new SaleCodec()
+    );
+
+    private static final ClassValue<Mapping> mappings = new ClassValue<>() {
+        @Override
+        protected Mapping computeValue(Class<?> type) {
+            return Mapping.of(type);
+        }
+    };
 
     /**
      * Converts an entity object to a string array.
-     * Uses reflection to access all declared fields and convert their values
-     * to strings.
+     * Each declared field becomes one column, in declaration order.
      *
      * @param entity the entity to convert
      * @return an array of strings representing the entity's field values
      * @throws RuntimeException if there is an error accessing the fields
      */
+    @SuppressWarnings("unchecked")
     public static String[] entityToArray(Entity entity) {
-        Field[] declaredFields = entity.getClass().getDeclaredFields();
-        String[] list = new String[declaredFields.length];
-
-        for (int i = 0; i < declaredFields.length; i++) {
-            declaredFields[i].setAccessible(true);
+        Codec<Entity> codec = (Codec<Entity>) codecs.get(entity.getClass());
+        if (codec != null) {
             try {
-                Object fieldObject = declaredFields[i].get(entity);
-                if (fieldObject == null) fieldObject = NULL;
-                list[i] = fieldObject.toString();
-            } catch (IllegalAccessException e) {
+                return codec.encode(entity);
+            } catch (Exception e) {
                 throw new RuntimeException("Error mapping entity to data", e);
             }
         }
+
+        Column[] columns = mappings.get(entity.getClass()).columns;
+        String[] list = new String[columns.length];
+
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                list[i] = columns[i].reader.read(entity);
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Error mapping entity to data", e);
+        }
         return list;
     }
 
     /**
      * Creates an entity from a string array.
-     * Uses reflection to create a new instance and set its fields from
-     * the string values.
+     * Creates a new instance and sets its fields from the string values,
+     * in column order.
      *
      * @param <T>   the type of entity to create
      * @param clazz the class of the entity
@@ -64,41 +108,205 @@ public class EntityMapper {
      * @throws RuntimeException if there is an error creating or setting fields
      */
     public static <T extends Entity> T arrayToEntity(Class<T> clazz, String[] data) {
-        try {
-            T instance = clazz.getDeclaredConstructor().newInstance();
-            Field[] fields = clazz.getDeclaredFields();
+        return recordToEntity(clazz, CsvRecord.of(data));
+    }
 
-            Class<?> type;
-            String value;
+    /**
+     * Creates an entity from a CSV record.
+     * Entities with a codec read only the columns they need, typed, from the
+     * record; other entities read every column as a string.
+     *
+     * @param <T>    the type of entity to create
+     * @param clazz  the class of the entity
+     * @param record the row containing field values
+     * @return a new instance of the entity with fields set from the record
+     * @throws RuntimeException if there is an error creating or setting fields
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Entity> T recordToEntity(Class<T> clazz, CsvRecord record) {
+        Codec<T> codec = (Codec<T>) codecs.get(clazz);
+        if (codec != null) {
+            try {
+                return codec.decode(record);
+            } catch (Exception e) {
+                throw new RuntimeException("Error mapping data to entity", e);
+            }
+        }
 
-            for (int i = 0; i < fields.length && i < data.length; i++) {
-                fields[i].setAccessible(true);
-                type = fields[i].getType();
-                value = data[i];
+        Mapping mapping = mappings.get(clazz);
 
-                if (type.equals(String.class) && value.equals(NULL)) value = null;
+        try {
+            Object instance = mapping.constructor.invokeExact();
+            Column[] columns = mapping.columns;
 
-                fields[i].set(instance, castValue(type, value));
+            for (int i = 0; i < columns.length && i < record.size(); i++) {
+                columns[i].writer.write(instance, record.get(i));
             }
-            return instance;
-        } catch (Exception e) {
+            return clazz.cast(instance);
+        } catch (Throwable e) {
             throw new RuntimeException("Error mapping data to entity", e);
         }
     }
 
     /**
-     * Casts a string value to the appropriate type for a field.
-     * Supports primitive types (int, double, boolean) and their wrapper classes.
+     * Builds the codec registry, checking that the columns of every codec
+     * match the instance fields of its entity.
+     *
+     * @param list the codecs to register
+     * @return the codecs indexed by entity class
+     * @throws IllegalStateException if a codec does not cover exactly the
+     *                               fields of its entity
+     */
+    private static Map<Class<?>, Codec<?>> register(Codec<?>... list) {
+        Map<Class<?>, Codec<?>> registry = new HashMap<>();
+
+        for (Codec<?> codec : list) {
+            Set<String> fields = new HashSet<>();
+            for (Field field : codec.type().getDeclaredFields()) {
+                if (!isColumn(field)) continue;
+                fields.add(field.getName());
+            }
+
+            String[] columns = codec.columns();
+            if (columns.length != fields.size() || !fields.equals(new HashSet<>(Arrays.asList(columns)))) {
+                throw new IllegalStateException("Codec " + codec.getClass().getSimpleName()
+                        + " columns " + Arrays.toString(columns) + " do not match the fields " + fields);
+            }
+            registry.put(codec.type(), codec);
+        }
+        return Map.copyOf(registry);
+    }
+
+    /**
+     * Checks whether a field is stored as a column.
+     * Static, transient and synthetic fields are not stored.
      *
-     * @param fieldType the type to cast to
-     * @param value     the string value to cast
-     * @return the value cast to the appropriate type
+     * @param field the field to check
+     * @return true if the field is persisted
      */
-    private static Object castValue(Class<?> fieldType, String value) {
-        if (value == null) return null;
-        if (fieldType == int.class || fieldType == Integer.class) return Integer.parseInt(value);
-        if (fieldType == double.class || fieldType == Double.class) return Double.parseDouble(value);
-        if (fieldType == boolean.class || fieldType == Boolean.class) return Boolean.parseBoolean(value);
-        return value;
+    private static boolean isColumn(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic();
+    }
+
+    /**
+     * Writes a parsed column value into an instance.
+     */
+    @FunctionalInterface
+    private interface ColumnWriter {
+        void write(Object instance, String value) throws Throwable;
+    }
+
+    /**
+     * Reads a column value from an instance and formats it.
+     */
+    @FunctionalInterface
+    private interface ColumnReader {
+        String read(Object instance) throws Throwable;
+    }
+
+    /**
+     * Accessors for a single field of an entity class.
+     *
+     * @param writer parses a string and stores it in the field
+     * @param reader reads the field and formats it as a string
+     */
+    private record Column(ColumnWriter writer, ColumnReader reader) {
+
+        /**
+         * Resolves the accessors of a field.
+         * Supports primitive types (int, double, boolean), their wrapper classes
+         * and strings.
+         *
+         * @param lookup a lookup with private access to the entity class
+         * @param field  the field to resolve
+         * @return the column for the field
+         * @throws IllegalAccessException if the field cannot be accessed
+         */
+        static Column of(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+            field.setAccessible(true);
+            Class<?> type = field.getType();
+            MethodHandle getter = lookup.unreflectGetter(field);
+            MethodHandle setter = lookup.unreflectSetter(field);
+
+            if (type == int.class) {
+                MethodHandle get = getter.asType(MethodType.methodType(int.class, Object.class));
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+                return new Column(
+                        (o, v) -> { set.invokeExact(o, Integer.parseInt(v)); },
+                        o -> Integer.toString((int) get.invokeExact(o))
+                );
+            }
+            if (type == double.class) {
+                MethodHandle get = getter.asType(MethodType.methodType(double.class, Object.class));
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+                return new Column(
+                        (o, v) -> { set.invokeExact(o, Double.parseDouble(v)); },
+                        o -> Double.toString((double) get.invokeExact(o))
+                );
+            }
+            if (type == boolean.class) {
+                MethodHandle get = getter.asType(MethodType.methodType(boolean.class, Object.class));
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+                return new Column(
+                        (o, v) -> { set.invokeExact(o, Boolean.parseBoolean(v)); },
+                        o -> Boolean.toString((boolean) get.invokeExact(o))
+                );
+            }
+
+            MethodHandle get = getter.asType(MethodType.methodType(Object.class, Object.class));
+            MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            ColumnReader reader = o -> {
+                Object value = get.invokeExact(o);
+                return value == null ? NULL : value.toString();
+            };
+
+            if (type == Integer.class) {
+                return new Column((o, v) -> { set.invokeExact(o, (Object) Integer.valueOf(v)); }, reader);
+            }
+            if (type == Double.class) {
+                return new Column((o, v) -> { set.invokeExact(o, (Object) Double.valueOf(v)); }, reader);
+            }
+            if (type == Boolean.class) {
+                return new Column((o, v) -> { set.invokeExact(o, (Object) Boolean.valueOf(v)); }, reader);
+            }
+            if (type == String.class) {
+                return new Column((o, v) -> { set.invokeExact(o, (Object) (NULL.equals(v) ? null : v)); }, reader);
+            }
+
+            throw new IllegalArgumentException("Unsupported field type " + type.getName() + " for " + field);
+        }
+    }
+
+    /**
+     * Cached constructor and column accessors of an entity class.
+     *
+     * @param constructor the no-argument constructor, typed as {@code ()Object}
+     * @param columns     the columns in declaration order
+     */
+    private record Mapping(MethodHandle constructor, Column[] columns) {
+
+        /**
+         * Resolves the mapping of a class from its declared instance fields.
+         *
+         * @param type the entity class
+         * @return the mapping for the class
+         */
+        static Mapping of(Class<?> type) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+
+                List<Column> columns = new ArrayList<>();
+                for (Field field : type.getDeclaredFields()) {
+                    if (!isColumn(field)) continue;
+                    columns.add(Column.of(lookup, field));
+                }
+                return new Mapping(constructor, columns.toArray(new Column[0]));
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Error resolving the mapping of " + type.getName(), e);
+            }
+        }
     }
 }
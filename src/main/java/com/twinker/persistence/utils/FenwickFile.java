@@ -0,0 +1,262 @@
+package com.twinker.persistence.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fenwick tree (binary indexed tree) of sums by integer key, stored in a
+ * binary file next to the data it indexes.
+ * Adding to a key and summing any range of keys both touch a logarithmic
+ * number of nodes, and an addition only rewrites those nodes on disk.
+ *
+ * <p>
+ * The file is stored with the {@code .fenwick} suffix and holds:
+ * <ul>
+ * <li>The base key, stored in the first slot of the tree</li>
+ * <li>The number of values added and a fingerprint of their keys and
+ * values, so the owner can tell whether the tree still matches its data</li>
+ * <li>The capacity of the tree, zero or a power of two</li>
+ * <li>One double per node of the tree</li>
+ * </ul>
+ * A file that cannot be read whole is discarded and the tree starts empty.
+ * The tree doubles its capacity when a key beyond it is added.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.PartitionManifest
+ */
+public class FenwickFile {
+    private static final Logger logger = Logger.getLogger(FenwickFile.class.getName());
+    private static final int HEADER = 3 * Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private long base;
+    private long count;
+    private long fingerprint;
+    private double[] tree = new double[1];
+
+    /**
+     * Constructs a new FenwickFile for the specified data file and loads it
+     * if it exists.
+     *
+     * @param filePath the path to the file the tree belongs to
+     */
+    public FenwickFile(String filePath) {
+        this.path = Path.of(filePath + ".fenwick");
+        load();
+    }
+
+    /**
+     * Gets the key stored in the first slot of the tree.
+     *
+     * @return the base key
+     */
+    public long base() {
+        return base;
+    }
+
+    /**
+     * Gets the number of values added to the tree since it was last reset.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets the fingerprint of the values added to the tree since it was last
+     * reset: the sum of {@link #fingerprint(long, double)} over every value.
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Computes the part of the fingerprint of a tree contributed by one
+     * value. Moving a value to another key or changing it by a cent or more
+     * changes the fingerprint, whatever the order the values were added in.
+     *
+     * @param key   the key of the value
+     * @param value the value
+     * @return the contribution of the value to the fingerprint
+     */
+    public static long fingerprint(long key, double value) {
+        long mixed = (key + 1) * 0x9E3779B97F4A7C15L;
+        return (mixed ^ (mixed >>> 29)) * Math.round(value * 100);
+    }
+
+    /**
+     * Adds a value to a key and writes the changed nodes to disk.
+     * The first key added to an empty tree becomes its base key.
+     *
+     * @param key   the key, not lower than the base key
+     * @param value the value to add
+     * @throws IllegalArgumentException if the key is lower than the base key
+     */
+    public void add(long key, double value) {
+        if (tree.length == 1) base = key;
+        if (key < base) throw new IllegalArgumentException("Key " + key + " is before the base " + base);
+
+        int slot = Math.toIntExact(key - base) + 1;
+        if (slot >= tree.length) {
+            while (slot >= tree.length) grow();
+            addNodes(slot, value);
+            count++;
+            fingerprint += fingerprint(key, value);
+            save();
+            return;
+        }
+
+        addNodes(slot, value);
+        count++;
+        fingerprint += fingerprint(key, value);
+        write(slot);
+    }
+
+    /**
+     * Sums the values of every key up to and including a key.
+     *
+     * @param key the last key to include
+     * @return the sum of the values
+     */
+    public double prefix(long key) {
+        if (key < base) return 0;
+
+        double sum = 0;
+        for (int i = (int) Math.min(key - base + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the values of the keys in a range.
+     *
+     * @param from the first key to include
+     * @param to   the last key to include
+     * @return the sum of the values
+     */
+    public double sum(long from, long to) {
+        return from > to ? 0 : prefix(to) - prefix(from - 1);
+    }
+
+    /**
+     * Replaces the tree with one built from the given values, and writes it
+     * to disk.
+     *
+     * @param base        the key of the first value
+     * @param values      the value of each key from the base key onwards
+     * @param count       the number of values the tree stands for
+     * @param fingerprint the fingerprint of those values
+     */
+    public void reset(long base, double[] values, long count, long fingerprint) {
+        int capacity = values.length == 0 ? 0 : Integer.highestOneBit(values.length);
+        if (capacity < values.length) capacity <<= 1;
+
+        this.base = base;
+        this.count = count;
+        this.fingerprint = fingerprint;
+        this.tree = new double[capacity + 1];
+        System.arraycopy(values, 0, tree, 1, values.length);
+        for (int i = 1; i <= capacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= capacity) tree[parent] += tree[i];
+        }
+        save();
+    }
+
+    /**
+     * Doubles the capacity of the tree. The new top node covers every old
+     * node, so it starts with their total; the others start empty.
+     */
+    private void grow() {
+        int capacity = tree.length - 1;
+        if (capacity == 0) {
+            tree = new double[2];
+            return;
+        }
+
+        double total = tree[capacity];
+        tree = Arrays.copyOf(tree, 2 * capacity + 1);
+        tree[2 * capacity] = total;
+    }
+
+    private void addNodes(int slot, double value) {
+        for (int i = slot; i < tree.length; i += i & -i) {
+            tree[i] += value;
+        }
+    }
+
+    /**
+     * Writes the nodes changed by an addition to a slot, then the
+     * fingerprint and the count, so an interrupted write leaves a count that
+     * no longer matches the data.
+     */
+    private void write(int slot) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for (int i = slot; i < tree.length; i += i & -i) {
+                channel.write(ByteBuffer.allocate(Double.BYTES).putDouble(0, tree[i]), HEADER + (long) (i - 1) * Double.BYTES);
+            }
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, fingerprint), 2 * Long.BYTES);
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count), Long.BYTES);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error writing the Fenwick tree to the path: " + path);
+        }
+    }
+
+    /**
+     * Writes the whole tree to a temporary file and moves it over the
+     * previous one.
+     */
+    private void save() {
+        int capacity = tree.length - 1;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + capacity * Double.BYTES);
+        buffer.putLong(base).putLong(count).putLong(fingerprint).putInt(capacity);
+        for (int i = 1; i <= capacity; i++) {
+            buffer.putDouble(tree[i]);
+        }
+
+        Path temp = Path.of(path + ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error writing the Fenwick tree to the path: " + path);
+        }
+    }
+
+    /**
+     * Reads the tree from disk, discarding it if it is incomplete.
+     */
+    private void load() {
+        if (!Files.exists(path)) return;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            long storedBase = buffer.getLong();
+            long storedCount = buffer.getLong();
+            long storedFingerprint = buffer.getLong();
+            int capacity = buffer.getInt();
+            if ((capacity != 0 && Integer.bitCount(capacity) != 1) || buffer.remaining() != (long) capacity * Double.BYTES) return;
+
+            double[] nodes = new double[capacity + 1];
+            for (int i = 1; i <= capacity; i++) {
+                nodes[i] = buffer.getDouble();
+            }
+            base = storedBase;
+            count = storedCount;
+            fingerprint = storedFingerprint;
+            tree = nodes;
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Error reading the Fenwick tree from the path: " + path);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.twinker.persistence.utils;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Memory-mapped CSV reader that tokenizes rows directly over the file bytes.
+ * The file is mapped into a {@link MemorySegment} and each row is exposed as
+ * a {@link CsvRecord} holding only the offsets of its columns, so no string is
+ * created for a line or a column unless it is read as text.
+ *
+ * <p>
+ * This class handles:
+ * <ul>
+ * <li>Mapping the file for the duration of a scan and unmapping it afterwards</li>
+ * <li>Splitting lines on LF, CR or CRLF, like {@link java.io.BufferedReader}</li>
+ * <li>Splitting columns on commas, dropping trailing empty columns like
+ * {@link String#split(String)}</li>
+ * <li>Parsing integers and simple decimals without intermediate strings</li>
+ * <li>Parsing large files in parallel, in chunks aligned to line breaks</li>
+ * <li>Scanning only the rows after a known offset, reporting where each starts</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The record passed to the callback is reused for every row and is only valid
+ * during the call.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.CsvRecord
+ * @see com.twinker.persistence.utils.CsvHandler
+ */
+public class MappedCsvReader {
+    private static final Logger logger = Logger.getLogger(MappedCsvReader.class.getName());
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String filePath;
+
+    /**
+     * Constructs a new MappedCsvReader for the specified file.
+     *
+     * @param filePath the path to the CSV file to read
+     */
+    public MappedCsvReader(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Maps the file and passes every row to the given action, in file order.
+     * Errors are logged and end the scan, like {@link CsvHandler#readCSV()}.
+     *
+     * @param action the action to run for each row
+     */
+    public void forEach(Consumer<CsvRecord> action) {
+        forEach(0, (record, _) -> action.accept(record));
+    }
+
+    /**
+     * Maps the file and passes every row from an offset to the end of the
+     * file to the given action, together with the offset where the row starts.
+     * The offset must be the beginning of a line.
+     *
+     * @param from   the offset of the first row to read
+     * @param action the action to run for each row and its offset
+     */
+    public void forEach(long from, ObjLongConsumer<CsvRecord> action) {
+        forEach(from, Long.MAX_VALUE, action);
+    }
+
+    /**
+     * Maps the file and passes every row that starts within a range of it to
+     * the given action, together with the offset where the row starts. The
+     * start of the range must be the beginning of a line.
+     *
+     * @param from   the offset of the first row to read
+     * @param to     the offset before which the last row read starts
+     * @param action the action to run for each row and its offset
+     */
+    public void forEach(long from, long to, ObjLongConsumer<CsvRecord> action) {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+             Arena arena = Arena.ofConfined()) {
+            long size = channel.size();
+            if (size <= from || to <= from) return;
+
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            forEach(segment, from, Math.min(to, size), action);
+        } catch (NoSuchFileException e) {
+            logger.log(Level.SEVERE, "Error reading the CSV file from the path: " + filePath);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error mapping the CSV file from the path: " + filePath);
+        }
+    }
+
+    /**
+     * Maps the file and converts its rows in parallel on the common
+     * {@link ForkJoinPool}. The file is split recursively into byte ranges
+     * aligned to line breaks until each range is at most {@code chunkSize}
+     * bytes, each range is parsed on its own worker, and the partial results
+     * are joined in file order.
+     *
+     * <p>
+     * The mapper is called concurrently from several threads, each with its
+     * own record. Rows for which it returns null are skipped.
+     * </p>
+     *
+     * @param <R>       the type of the converted rows
+     * @param mapper    the conversion to apply to each row
+     * @param chunkSize the maximum number of bytes parsed by a single task
+     * @return the converted rows, in file order
+     */
+    public <R> List<R> readParallel(Function<CsvRecord, R> mapper, long chunkSize) {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+             Arena arena = Arena.ofShared()) {
+            long size = channel.size();
+            if (size == 0) return new ArrayList<>();
+
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return ForkJoinPool.commonPool().invoke(new ParseTask<>(segment, 0, size, mapper, Math.max(1, chunkSize)));
+        } catch (NoSuchFileException e) {
+            logger.log(Level.SEVERE, "Error reading the CSV file from the path: " + filePath);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error mapping the CSV file from the path: " + filePath);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Passes every row that starts within a range of a mapped file to the
+     * given action, together with the offset where the row starts. The range
+     * must start at the beginning of a line.
+     *
+     * @param segment the mapped file
+     * @param from    the offset of the first byte of the range
+     * @param to      the offset just past the last byte of the range
+     * @param action  the action to run for each row and its offset
+     */
+    static void forEach(MemorySegment segment, long from, long to, ObjLongConsumer<CsvRecord> action) {
+        MappedRecord record = new MappedRecord(segment);
+        long position = from;
+
+        while (position < to) {
+            long end = position;
+            byte b = 0;
+            while (end < segment.byteSize() && (b = segment.get(ValueLayout.JAVA_BYTE, end)) != '\n' && b != '\r') {
+                end++;
+            }
+
+            record.parse(position, end);
+            action.accept(record, position);
+
+            position = end + 1;
+            if (b == '\r' && position < segment.byteSize()
+                    && segment.get(ValueLayout.JAVA_BYTE, position) == '\n') {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that parses a range of a mapped file.
+     * Ranges larger than the chunk size are split at the first line break
+     * after their middle, so no row is cut between two tasks.
+     *
+     * @param <R> the type of the converted rows
+     */
+    private static final class ParseTask<R> extends RecursiveTask<List<R>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient MemorySegment segment;
+        private final long from;
+        private final long to;
+        private final transient Function<CsvRecord, R> mapper;
+        private final long chunkSize;
+
+        private ParseTask(MemorySegment segment, long from, long to, Function<CsvRecord, R> mapper, long chunkSize) {
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+            this.mapper = mapper;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected List<R> compute() {
+            long split = to - from > chunkSize ? lineStartAfter(from + (to - from) / 2) : to;
+
+            if (split >= to) {
+                List<R> rows = new ArrayList<>();
+                forEach(segment, from, to, (record, _) -> {
+                    R row = mapper.apply(record);
+                    if (row != null) rows.add(row);
+                });
+                return rows;
+            }
+
+            ParseTask<R> left = new ParseTask<>(segment, from, split, mapper, chunkSize);
+            ParseTask<R> right = new ParseTask<>(segment, split, to, mapper, chunkSize);
+            left.fork();
+            List<R> rightRows = right.compute();
+            List<R> rows = left.join();
+            rows.addAll(rightRows);
+            return rows;
+        }
+
+        /**
+         * Finds the start of the first line after an offset.
+         *
+         * @param offset the offset to search from
+         * @return the offset just past the next LF, or the end of the range
+         */
+        private long lineStartAfter(long offset) {
+            for (long i = offset; i < to; i++) {
+                if (segment.get(ValueLayout.JAVA_BYTE, i) == '\n') return i + 1;
+            }
+            return to;
+        }
+    }
+
+    /**
+     * Flyweight record holding the column offsets of the current row.
+     */
+    private static final class MappedRecord implements CsvRecord {
+        private final MemorySegment segment;
+        private long[] starts = new long[8];
+        private long[] ends = new long[8];
+        private int size;
+
+        private MappedRecord(MemorySegment segment) {
+            this.segment = segment;
+        }
+
+        /**
+         * Splits the line between two offsets into columns.
+         *
+         * @param lineStart the offset of the first byte of the line
+         * @param lineEnd   the offset of the line break, or the end of the file
+         */
+        private void parse(long lineStart, long lineEnd) {
+            size = 0;
+            long start = lineStart;
+
+            for (long i = lineStart; i <= lineEnd; i++) {
+                if (i == lineEnd || segment.get(ValueLayout.JAVA_BYTE, i) == ',') {
+                    if (size == starts.length) {
+                        starts = Arrays.copyOf(starts, size * 2);
+                        ends = Arrays.copyOf(ends, size * 2);
+                    }
+                    starts[size] = start;
+                    ends[size] = i;
+                    size++;
+                    start = i + 1;
+                }
+            }
+
+            // String.split keeps a single empty column for blank lines but
+            // drops trailing empty columns otherwise
+            while (size > 1 && starts[size - 1] == ends[size - 1]) size--;
+            if (size == 1 && starts[0] == ends[0] && lineEnd > lineStart) size = 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String get(int index) {
+            Objects.checkIndex(index, size);
+            int length = (int) (ends[index] - starts[index]);
+            byte[] bytes = new byte[length];
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, starts[index], bytes, 0, length);
+            return new String(bytes, Charset.defaultCharset());
+        }
+
+        @Override
+        public int integer(int index) {
+            if (index >= size) return 0;
+
+            long i = starts[index];
+            long end = ends[index];
+            boolean negative = i < end && segment.get(ValueLayout.JAVA_BYTE, i) == '-';
+            if (negative || (i < end && segment.get(ValueLayout.JAVA_BYTE, i) == '+')) i++;
+            if (i == end || end - i > 9) return Integer.parseInt(get(index));
+
+            int value = 0;
+            for (; i < end; i++) {
+                int digit = segment.get(ValueLayout.JAVA_BYTE, i) - '0';
+                if (digit < 0 || digit > 9) return Integer.parseInt(get(index));
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses plain decimals such as {@code 1250.5} directly from the bytes.
+         * Values with up to 15 significant digits are exact as a long, and
+         * dividing by an exact power of ten gives the correctly rounded double.
+         * Anything else, such as exponents, falls back to {@link Double#parseDouble}.
+         */
+        @Override
+        public double decimal(int index) {
+            if (index >= size) return 0;
+
+            long i = starts[index];
+            long end = ends[index];
+            boolean negative = i < end && segment.get(ValueLayout.JAVA_BYTE, i) == '-';
+            if (negative) i++;
+
+            long mantissa = 0;
+            int digits = 0;
+            int fraction = -1;
+            for (; i < end; i++) {
+                byte b = segment.get(ValueLayout.JAVA_BYTE, i);
+                if (b == '.' && fraction < 0) {
+                    fraction = 0;
+                    continue;
+                }
+                if (b < '0' || b > '9' || digits == 15 || fraction == 22) return Double.parseDouble(get(index));
+
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) digits++;
+                if (fraction >= 0) fraction++;
+            }
+            if (end == starts[index] + (negative ? 1 : 0) || fraction == 0) return Double.parseDouble(get(index));
+
+            double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+            return negative ? -value : value;
+        }
+    }
+}
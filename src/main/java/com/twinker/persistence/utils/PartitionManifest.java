@@ -0,0 +1,176 @@
+package com.twinker.persistence.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Manifest of the partitions of an append-only CSV file.
+ * Rows are grouped into partitions by a key, such as the month of a date,
+ * and the manifest records the offsets of the first and last rows of each
+ * partition, so a query can skip every row before the partitions it needs
+ * and, for a single partition, every row after it.
+ *
+ * <p>
+ * The manifest is stored next to the CSV file with the {@code .manifest}
+ * suffix:
+ * <ul>
+ * <li>{@code <key>,<first>,<last>} stores the offsets of the first and last
+ * rows of a partition</li>
+ * <li>The last line holds the number of bytes of the CSV file covered by the
+ * manifest</li>
+ * </ul>
+ * A manifest without its last line was cut short while being written and is
+ * discarded. Rows beyond the covered length are indexed the next time the
+ * manifest is refreshed.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.CsvHandler
+ * @see com.twinker.persistence.utils.MappedCsvReader
+ */
+public class PartitionManifest {
+    private final File file;
+    private final CsvHandler csvHandler;
+    private final TreeMap<String, long[]> offsets = new TreeMap<>();
+    private long length;
+
+    /**
+     * Constructs a new PartitionManifest for the specified CSV file and
+     * loads it if it exists.
+     *
+     * @param filePath the path to the CSV file the manifest belongs to
+     */
+    public PartitionManifest(String filePath) {
+        String manifestPath = filePath + ".manifest";
+        this.file = new File(manifestPath);
+        this.csvHandler = new CsvHandler(manifestPath);
+        load();
+    }
+
+    /**
+     * Gets the number of bytes of the CSV file covered by the manifest.
+     *
+     * @return the covered length
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Records that a row of a partition starts at an offset.
+     * Only the lowest and highest offsets of each partition are kept.
+     *
+     * @param key    the key of the partition, or null to ignore the row
+     * @param offset the offset of the row
+     */
+    public void record(String key, long offset) {
+        record(key, offset, offset);
+    }
+
+    /**
+     * Records that a row of a partition starts somewhere between two offsets,
+     * for rows appended in a batch whose exact offsets are not known.
+     *
+     * @param key   the key of the partition, or null to ignore the row
+     * @param first an offset not after the start of the row
+     * @param last  an offset not before the start of the row
+     */
+    public void record(String key, long first, long last) {
+        if (key == null) return;
+
+        offsets.merge(key, new long[]{first, last}, (stored, added) ->
+                new long[]{Math.min(stored[0], added[0]), Math.max(stored[1], added[1])});
+    }
+
+    /**
+     * Marks the first bytes of the CSV file as covered by the manifest.
+     *
+     * @param length the covered length
+     */
+    public void cover(long length) {
+        this.length = length;
+    }
+
+    /**
+     * Finds the offset from which every row of the partitions with a key
+     * greater than or equal to the given one can be read.
+     *
+     * @param fromKey the key of the first partition to read
+     * @return the lowest offset of those partitions, or the covered length
+     * if none of them exists
+     */
+    public long startOf(String fromKey) {
+        long start = length;
+        for (long[] range : offsets.tailMap(fromKey, true).values()) {
+            start = Math.min(start, range[0]);
+        }
+        return start;
+    }
+
+    /**
+     * Finds the offset before which every row of a partition starts.
+     *
+     * @param key the key of the partition
+     * @return the offset just past the start of the last row of the
+     * partition, or zero if the partition does not exist
+     */
+    public long endOf(String key) {
+        long[] range = offsets.get(key);
+        return range == null ? 0 : range[1] + 1;
+    }
+
+    /**
+     * Gets the keys of every partition in the manifest.
+     *
+     * @return a new list with the keys, in ascending order
+     */
+    public List<String> keys() {
+        return new ArrayList<>(offsets.keySet());
+    }
+
+    /**
+     * Writes the manifest to disk.
+     */
+    public void save() {
+        List<String[]> rows = new ArrayList<>(offsets.size() + 1);
+        for (Map.Entry<String, long[]> entry : offsets.entrySet()) {
+            long[] range = entry.getValue();
+            rows.add(new String[]{entry.getKey(), Long.toString(range[0]), Long.toString(range[1])});
+        }
+        rows.add(new String[]{Long.toString(length)});
+        csvHandler.writeCSV(rows);
+    }
+
+    /**
+     * Forgets every partition and deletes the manifest from disk.
+     */
+    public void reset() {
+        offsets.clear();
+        length = 0;
+        csvHandler.deleteCSV();
+    }
+
+    /**
+     * Reads the manifest from disk, discarding it if it is incomplete.
+     */
+    private void load() {
+        if (!file.exists()) return;
+
+        List<String[]> rows = csvHandler.readCSV();
+        try {
+            for (int i = 0; i < rows.size() - 1; i++) {
+                String[] row = rows.get(i);
+                offsets.put(row[0], new long[]{Long.parseLong(row[1]), Long.parseLong(row[2])});
+            }
+            String[] last = rows.getLast();
+            if (last.length != 1) throw new IllegalStateException("Missing covered length");
+            length = Long.parseLong(last[0]);
+        } catch (RuntimeException e) {
+            offsets.clear();
+            length = 0;
+        }
+    }
+}
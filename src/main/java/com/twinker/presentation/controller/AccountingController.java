@@ -3,6 +3,7 @@ package com.twinker.presentation.controller;
 import com.twinker.application.BillService;
 import com.twinker.application.ClientService;
 import com.twinker.application.InventoryService;
+import com.twinker.domain.collection.BillCursor;
 import com.twinker.domain.collection.BillEntry;
 import com.twinker.domain.entity.Client;
 import com.twinker.domain.entity.Product;
@@ -21,6 +22,7 @@ import java.util.List;
  * The controller handles:
  * <ul>
  * <li>Bill listing and filtering</li>
+ * <li>Loading further pages of bills on demand</li>
  * <li>Client and product filter management</li>
  * <li>Bill detail display</li>
  * <li>Sales record tracking</li>
@@ -39,6 +41,12 @@ public class AccountingController {
     public final ClientService clientService;
     public final InventoryService inventoryService;
 
+    /** Number of bills fetched each time the list needs more */
+    private static final int PAGE_SIZE = 30;
+
+    private BillCursor nextPage;
+    private boolean hasMoreBills;
+
     /**
      * Constructs a new AccountingController.
      * Initializes the required services for accounting operations.
@@ -61,11 +69,22 @@ public class AccountingController {
     }
 
     /**
-     * Loads and displays all bills sorted by date.
+     * Loads and displays the first page of bills sorted by date.
      */
     public void loadAccounting() {
-        List<BillEntry> billEntries = billService.getAllBillsSorted();
-        view.showSales(billEntries);
+        nextPage = null;
+        hasMoreBills = true;
+        view.showSales(fetchPage());
+    }
+
+    /**
+     * Handles the bill list reaching its end.
+     * Appends the next page of bills, if there is one.
+     */
+    public void onLoadMoreBills() {
+        if (!hasMoreBills) return;
+
+        view.appendSales(fetchPage());
     }
 
     /**
@@ -105,10 +124,25 @@ public class AccountingController {
             if (productName.equals(VOID_FILTER)) productName = null;
 
             List<BillEntry> bills = billService.filterBills(clientName, productName);
+            hasMoreBills = false;
             view.showSales(bills);
         }
     }
 
+    /**
+     * Fetches the page of bills after the current cursor and moves the cursor
+     * past it.
+     *
+     * @return the bill entries of the page
+     */
+    private List<BillEntry> fetchPage() {
+        List<BillEntry> page = billService.getBillsPage(nextPage, PAGE_SIZE);
+
+        hasMoreBills = page.size() == PAGE_SIZE;
+        if (!page.isEmpty()) nextPage = BillCursor.after(page.getLast().bill());
+        return page;
+    }
+
     /**
      * Handles opening the bill detail dialog.
      * Shows detailed information for a specific bill.
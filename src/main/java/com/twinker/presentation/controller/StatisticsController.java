@@ -3,6 +3,10 @@ package com.twinker.presentation.controller;
 import com.twinker.application.StatisticsService;
 import com.twinker.presentation.view.StatisticsView;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -15,8 +19,11 @@ import java.util.Map;
  * The controller handles:
  * <ul>
  * <li>Sales trend visualization</li>
- * <li>Top products analysis</li>
+ * <li>Top products analysis, for the month and, approximately, the year</li>
  * <li>Top clients tracking</li>
+ * <li>Revenue for the day, week and month, and the running total</li>
+ * <li>Units sold in the day, week and month</li>
+ * <li>Distinct clients and basket size for the day, week and month</li>
  * <li>Time-based sales reports</li>
  * </ul>
  * </p>
@@ -46,8 +53,59 @@ public class StatisticsController {
      */
     public void initStatistics() {
         onSelectChart(0);
-        view.showTopProducts(statisticsService.getMonthlyTopProducts());
+        view.showTopProducts(statisticsService.getMonthlyTopProducts(), statisticsService.getAnnualTopProducts());
         view.showTopClientChart(statisticsService.getMonthlyTopClients());
+        showRevenue();
+        showUnits();
+        showClientMetrics();
+    }
+
+    /**
+     * Displays the amount sold in the current day, week and month, and the
+     * running total of every sale up to today.
+     */
+    private void showRevenue() {
+        LocalDate today = LocalDate.now();
+
+        Map<String, Double> revenue = new LinkedHashMap<>();
+        revenue.put("Hoy", statisticsService.getRevenue(today, today));
+        revenue.put("Semana", statisticsService.getRevenue(
+                today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), today));
+        revenue.put("Mes", statisticsService.getRevenue(today.with(TemporalAdjusters.firstDayOfMonth()), today));
+
+        view.showRevenue(revenue, statisticsService.getRunningRevenue(today));
+    }
+
+    /**
+     * Displays the units sold in the current day, week and month.
+     */
+    private void showUnits() {
+        LocalDate today = LocalDate.now();
+
+        Map<String, Long> units = new LinkedHashMap<>();
+        units.put("Hoy", statisticsService.getUnitsSold(today, today));
+        units.put("Semana", statisticsService.getUnitsSold(
+                today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), today));
+        units.put("Mes", statisticsService.getUnitsSold(today.with(TemporalAdjusters.firstDayOfMonth()), today));
+
+        view.showUnits(units);
+    }
+
+    /**
+     * Displays the distinct clients of the current day, week and month, and
+     * the average basket size of the month.
+     */
+    private void showClientMetrics() {
+        LocalDate today = LocalDate.now();
+        LocalDate firstOfMonth = today.with(TemporalAdjusters.firstDayOfMonth());
+
+        Map<String, Long> distinctClients = new LinkedHashMap<>();
+        distinctClients.put("Hoy", statisticsService.getDistinctClients(today, today));
+        distinctClients.put("Semana", statisticsService.getDistinctClients(
+                today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), today));
+        distinctClients.put("Mes", statisticsService.getDistinctClients(firstOfMonth, today));
+
+        view.showClientMetrics(distinctClients, statisticsService.getAverageBasketSize(firstOfMonth, today));
     }
 
     /**
@@ -21,7 +21,8 @@ import java.util.List;
  * The view consists of:
  * <ul>
  * <li>A filters panel for searching bills by client and product</li>
- * <li>A scrollable list of bill entries showing transaction details</li>
+ * <li>A scrollable list of bill entries showing transaction details,
+ * loaded one page at a time as the user scrolls</li>
  * <li>Controls for viewing detailed bill information</li>
  * </ul>
  * </p>
@@ -31,6 +32,9 @@ import java.util.List;
  * @see com.twinker.domain.collection.BillEntry
  */
 public class AccountingView extends JPanel {
+    /** Distance in pixels from the end of the list at which the next page is loaded */
+    private static final int LOAD_MORE_MARGIN = 200;
+
     private final JPanel content;
     private JPanel salesPanel;
     private final JPanel filtersPanel;
@@ -66,6 +70,12 @@ public class AccountingView extends JPanel {
         salesScrollPanel.getVerticalScrollBar().setUnitIncrement(14);
         content.add(salesScrollPanel);
 
+        JScrollBar salesScrollBar = salesScrollPanel.getVerticalScrollBar();
+        salesScrollBar.addAdjustmentListener(_ -> {
+            int end = salesScrollBar.getValue() + salesScrollBar.getVisibleAmount();
+            if (end >= salesScrollBar.getMaximum() - LOAD_MORE_MARGIN) accountingController.onLoadMoreBills();
+        });
+
         accountingController.initAccounting();
         addComponentListener(new ComponentAdapter() {
             @Override
@@ -75,8 +85,7 @@ public class AccountingView extends JPanel {
 
     /**
      * Updates the sales panel with the current list of bill entries.
-     * Creates a card for each bill showing basic transaction information
-     * and provides access to detailed views.
+     * Replaces the cards currently shown with one card per bill.
      *
      * @param billEntries the list of bill entries to display
      */
@@ -93,6 +102,17 @@ public class AccountingView extends JPanel {
             salesPanel.removeAll();
         }
 
+        appendSales(billEntries);
+    }
+
+    /**
+     * Adds bill entries to the end of the sales panel.
+     * Creates a card for each bill showing basic transaction information
+     * and provides access to detailed views.
+     *
+     * @param billEntries the list of bill entries to add
+     */
+    public void appendSales(List<BillEntry> billEntries) {
         for (BillEntry billEntry : billEntries) {
             JPanel card = new JPanel(new BorderLayout());
             card.setBackground(getBackground());
@@ -39,6 +39,9 @@ public class StatisticsView extends JPanel {
     private final JPanel chartPanel;
     private final JPanel topProductsPanel;
     private final JPanel topClientChart;
+    private final JLabel revenueLabel;
+    private final JLabel unitsLabel;
+    private final JLabel clientMetricsLabel;
     private final StatisticsController statisticsController;
 
     /**
@@ -68,6 +71,16 @@ public class StatisticsView extends JPanel {
         chartPanel = new JPanel(new BorderLayout());
         leftPanel.add(chartPanel, BorderLayout.CENTER);
 
+        JPanel metricsPanel = new JPanel(new GridLayout(0, 1));
+        metricsPanel.setBackground(getBackground());
+        revenueLabel = new JLabel();
+        metricsPanel.add(revenueLabel);
+        unitsLabel = new JLabel();
+        metricsPanel.add(unitsLabel);
+        clientMetricsLabel = new JLabel();
+        metricsPanel.add(clientMetricsLabel);
+        leftPanel.add(metricsPanel, BorderLayout.SOUTH);
+
         topSection.add(leftPanel, BorderLayout.CENTER);
 
         topProductsPanel = new JPanel();
@@ -108,18 +121,71 @@ public class StatisticsView extends JPanel {
 
     /**
      * Updates the top products panel with current best-sellers.
-     * Displays a list of products and their sales quantities.
+     * Displays the products and their sales quantities for the month, then
+     * the estimated ones for the year, marked as approximate.
      *
-     * @param topProducts a map of product names to quantities sold
+     * @param topProducts       a map of product names to quantities sold in
+     *                          the month
+     * @param annualTopProducts a map of product names to estimated
+     *                          quantities sold in the year
      */
-    public void showTopProducts(Map<String, Integer> topProducts) {
+    public void showTopProducts(Map<String, Integer> topProducts, Map<String, Integer> annualTopProducts) {
         topProductsPanel.removeAll();
-        topProducts.forEach((name,qty) -> {
-            JPanel row = new JPanel(new BorderLayout());
-            row.add(new JLabel(name), BorderLayout.CENTER);
-            row.add(new JLabel(qty.toString()), BorderLayout.EAST);
-            topProductsPanel.add(row);
-        });
+        topProductsPanel.add(new JLabel("Mes"));
+        topProducts.forEach((name,qty) -> addTopProductRow(name, qty.toString()));
+        topProductsPanel.add(new JLabel("Año (aprox.)"));
+        annualTopProducts.forEach((name,qty) -> addTopProductRow(name, "≈" + qty));
+        revalidate(); repaint();
+    }
+
+    private void addTopProductRow(String name, String quantity) {
+        JPanel row = new JPanel(new BorderLayout());
+        row.add(new JLabel(name), BorderLayout.CENTER);
+        row.add(new JLabel(quantity), BorderLayout.EAST);
+        topProductsPanel.add(row);
+    }
+
+    /**
+     * Updates the revenue line below the sales chart.
+     *
+     * @param revenue      a map of period names to the amount sold in them
+     * @param runningTotal the amount sold since the first bill
+     */
+    public void showRevenue(Map<String, Double> revenue, double runningTotal) {
+        StringBuilder text = new StringBuilder("Ingresos:");
+        revenue.forEach((period, amount) -> text.append(String.format(" %s $%.2f ·", period, amount)));
+        text.append(String.format(" Acumulado $%.2f", runningTotal));
+
+        revenueLabel.setText(text.toString());
+        revalidate(); repaint();
+    }
+
+    /**
+     * Updates the units line below the sales chart.
+     *
+     * @param units a map of period names to the units sold in them
+     */
+    public void showUnits(Map<String, Long> units) {
+        StringBuilder text = new StringBuilder("Unidades vendidas:");
+        units.forEach((period, count) -> text.append(' ').append(period).append(' ').append(count).append(" ·"));
+        text.setLength(text.length() - 2);
+
+        unitsLabel.setText(text.toString());
+        revalidate(); repaint();
+    }
+
+    /**
+     * Updates the client metrics line below the sales chart.
+     *
+     * @param distinctClients a map of period names to estimated distinct clients
+     * @param averageBasket   the average number of units per bill
+     */
+    public void showClientMetrics(Map<String, Long> distinctClients, double averageBasket) {
+        StringBuilder text = new StringBuilder("Clientes únicos:");
+        distinctClients.forEach((period, count) -> text.append(' ').append(period).append(' ').append(count).append(" ·"));
+        text.append(String.format(" Unidades por venta: %.1f", averageBasket));
+
+        clientMetricsLabel.setText(text.toString());
         revalidate(); repaint();
     }
 
@@ -0,0 +1,116 @@
+package com.twinker.application;
+
+import com.twinker.domain.entity.Sale;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmark of the units sold in a period over synthetic sales, comparing
+ * the loop over {@link Sale} objects with the scalar and vector kernels of
+ * {@link SalesColumns}.
+ *
+ * <p>
+ * Both sides do the same work: the lines are sorted by day, the period is
+ * found once by binary search over the days, and only the lines of the
+ * period are summed, either from the objects or from the columns. Run it
+ * from the test classes with the Vector API enabled to measure both
+ * kernels:
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes com.twinker.application.SalesColumnsBenchmark [lines]
+ * </pre>
+ * Without the module only the object loop and the scalar kernels are
+ * measured. Each loop is warmed up before the best of several rounds is
+ * reported.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.application.SalesColumns
+ */
+final class SalesColumnsBenchmark {
+    private static final int ROUNDS = 20;
+    private static final int DAYS = 5 * 365;
+
+    private SalesColumnsBenchmark() { }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optionally, the number of sale lines to generate
+     */
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Random random = new Random(42);
+
+        int[] day = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            day[i] = random.nextInt(DAYS);
+        }
+        Arrays.sort(day);
+
+        List<Sale> sales = new ArrayList<>(lines);
+        int[] quantity = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            Sale sale = new Sale("product-" + random.nextInt(500), "bill-" + i / 4,
+                    1 + random.nextInt(5), random.nextInt(10_000) / 100.0);
+            sales.add(sale);
+            quantity[i] = sale.getQuantity();
+        }
+
+        int begin = start(day, 365);
+        int end = start(day, 4 * 365);
+        System.out.println(lines + " lines, " + (end - begin) + " in the period");
+
+        double objects = measure("Sale objects", () -> {
+            long sum = 0;
+            for (int i = begin; i < end; i++) {
+                sum += sales.get(i).getQuantity();
+            }
+            return sum;
+        });
+
+        SalesColumns.Kernels scalar = new SalesColumns.ScalarKernels();
+        double scalarTime = measure("Scalar columns", () -> scalar.units(quantity, begin, end));
+        System.out.printf("Scalar speedup: %.1fx%n", objects / scalarTime);
+
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            System.out.println("Vector API not enabled, run with --add-modules jdk.incubator.vector");
+            return;
+        }
+        SalesColumns.Kernels vector = new VectorKernels();
+        double vectorTime = measure("Vector columns", () -> vector.units(quantity, begin, end));
+        System.out.printf("Vector speedup: %.1fx over objects, %.1fx over scalar%n", objects / vectorTime, scalarTime / vectorTime);
+    }
+
+    /**
+     * Finds the position of the first line on or after a day.
+     */
+    private static int start(int[] day, int key) {
+        int low = 0;
+        int high = day.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (day[middle] < key) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Runs a loop for a number of rounds and prints its best time.
+     *
+     * @return the best time, in milliseconds
+     */
+    private static double measure(String name, LongSupplier loop) {
+        double best = Double.MAX_VALUE;
+        long result = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            result = loop.getAsLong();
+            best = Math.min(best, (System.nanoTime() - begin) / 1e6);
+        }
+
+        System.out.printf("%-15s %8.2f ms  (%d)%n", name, best, result);
+        return best;
+    }
+}
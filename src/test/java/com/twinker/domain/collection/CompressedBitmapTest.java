@@ -0,0 +1,165 @@
+package com.twinker.domain.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link CompressedBitmap}, checking every operation against a
+ * {@link TreeSet} of the same values. The sets cover chunks small enough
+ * for the array containers and dense enough for the bitmap ones.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.collection.CompressedBitmap
+ */
+class CompressedBitmapTest {
+    private static final int CHUNK = 1 << 16;
+
+    @Test
+    void emptySetHasNoValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertEquals(0, bitmap.cardinality());
+        assertFalse(bitmap.contains(0));
+        assertFalse(bitmap.contains(-1));
+        assertEquals(List.of(), values(bitmap));
+    }
+
+    @Test
+    void addKeepsValuesSortedAndUnique() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int[] added = {5 * CHUNK + 7, 3, CHUNK, 3, 0, CHUNK - 1, 5 * CHUNK + 7, Integer.MAX_VALUE};
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int value : added) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertEquals(new ArrayList<>(expected), values(bitmap));
+        for (int value : expected) {
+            assertTrue(bitmap.contains(value));
+        }
+        assertFalse(bitmap.contains(4));
+        assertFalse(bitmap.contains(2 * CHUNK));
+    }
+
+    @Test
+    void addRejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> new CompressedBitmap().add(-1));
+    }
+
+    @Test
+    void denseChunkKeepsEveryValue() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            int value = CHUNK + i * 3;
+            bitmap.add(value);
+            expected.add(value);
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertEquals(new ArrayList<>(expected), values(bitmap));
+        assertTrue(bitmap.contains(CHUNK + 3 * 4096));
+        assertFalse(bitmap.contains(CHUNK + 3 * 4096 + 1));
+    }
+
+    @Test
+    void andIntersectsEveryKindOfContainer() {
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        // Array with array, bitmap with bitmap, array with bitmap and two
+        // chunks present on a single side.
+        fill(left, 0, 100, 2);
+        fill(right, 0, 100, 3);
+        fill(left, CHUNK, 9_000, 2);
+        fill(right, CHUNK, 9_000, 3);
+        fill(left, 2 * CHUNK, 200, 5);
+        fill(right, 2 * CHUNK, 12_000, 5);
+        fill(left, 3 * CHUNK, 50, 1);
+        fill(right, 4 * CHUNK, 50, 1);
+
+        CompressedBitmap result = bitmap(left).and(bitmap(right));
+
+        TreeSet<Integer> expected = new TreeSet<>(left);
+        expected.retainAll(right);
+        assertEquals(expected.size(), result.cardinality());
+        assertEquals(new ArrayList<>(expected), values(result));
+        assertEquals(values(result), values(bitmap(right).and(bitmap(left))));
+    }
+
+    @Test
+    void andOfDisjointSetsIsEmpty() {
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        fill(left, 0, 6_000, 2);
+        fill(right, 1, 6_000, 2);
+
+        CompressedBitmap result = bitmap(left).and(bitmap(right));
+
+        assertEquals(0, result.cardinality());
+        assertEquals(List.of(), values(result));
+    }
+
+    @Test
+    void orJoinsEveryKindOfContainer() {
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        // Two small arrays whose union no longer fits an array container.
+        fill(left, 0, 3_000, 2);
+        fill(right, 1, 3_000, 2);
+        fill(left, CHUNK, 8_000, 4);
+        fill(right, CHUNK, 100, 7);
+        fill(left, 3 * CHUNK, 10, 1);
+        fill(right, 5 * CHUNK, 10, 1);
+
+        CompressedBitmap result = bitmap(left).or(bitmap(right));
+
+        TreeSet<Integer> expected = new TreeSet<>(left);
+        expected.addAll(right);
+        assertEquals(expected.size(), result.cardinality());
+        assertEquals(new ArrayList<>(expected), values(result));
+        assertEquals(values(result), values(bitmap(right).or(bitmap(left))));
+    }
+
+    @Test
+    void operationsLeaveOperandsUntouched() {
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        fill(left, 0, 5_000, 1);
+        fill(right, 2_500, 5_000, 1);
+        CompressedBitmap a = bitmap(left);
+        CompressedBitmap b = bitmap(right);
+
+        CompressedBitmap union = a.or(b);
+        union.add(CHUNK * 7);
+        a.and(b);
+
+        assertEquals(new ArrayList<>(left), values(a));
+        assertEquals(new ArrayList<>(right), values(b));
+    }
+
+    private static void fill(TreeSet<Integer> set, int from, int count, int step) {
+        for (int i = 0; i < count; i++) {
+            set.add(from + i * step);
+        }
+    }
+
+    private static CompressedBitmap bitmap(TreeSet<Integer> values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        // Added in reverse so the chunks are not created in order.
+        values.descendingIterator().forEachRemaining(bitmap::add);
+        return bitmap;
+    }
+
+    private static List<Integer> values(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
@@ -0,0 +1,114 @@
+package com.twinker.domain.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link HyperLogLog}, checking its estimates against the exact
+ * number of distinct values and the round trip of both encodings.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.collection.HyperLogLog
+ */
+class HyperLogLogTest {
+
+    @Test
+    void emptySketchEstimatesZero() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertEquals(0, sketch.estimate());
+        assertNull(sketch.encode());
+    }
+
+    @Test
+    void ignoresRepeatedValues() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("client-" + (i % 10));
+        }
+
+        assertEquals(10, sketch.estimate());
+    }
+
+    @Test
+    void estimatesSmallCountsClosely() {
+        HyperLogLog sketch = sketchOf(0, 500);
+
+        assertEquals(500, sketch.estimate(), 5);
+    }
+
+    @Test
+    void estimatesLargeCountsWithinTheStandardError() {
+        HyperLogLog sketch = sketchOf(0, 200_000);
+
+        // The standard error with 2^14 registers is about 0.8%.
+        assertEquals(200_000, sketch.estimate(), 200_000 * 0.03);
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog left = sketchOf(0, 60_000);
+        HyperLogLog right = sketchOf(40_000, 100_000);
+
+        left.merge(right);
+
+        assertEquals(sketchOf(0, 100_000).estimate(), left.estimate());
+        assertEquals(100_000, left.estimate(), 100_000 * 0.03);
+        assertEquals(sketchOf(40_000, 100_000).estimate(), right.estimate());
+    }
+
+    @Test
+    void mergeWithEmptySketchKeepsTheEstimate() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+        long estimate = sketch.estimate();
+
+        sketch.merge(new HyperLogLog());
+
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void sparseEncodingRoundTrips() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+
+        String encoded = sketch.encode();
+        HyperLogLog decoded = HyperLogLog.decode(encoded);
+
+        assertTrue(encoded.length() < sketchOf(0, 100_000).encode().length());
+        assertEquals(sketch.estimate(), decoded.estimate());
+        assertEquals(encoded, decoded.encode());
+    }
+
+    @Test
+    void denseEncodingRoundTrips() {
+        HyperLogLog sketch = sketchOf(0, 100_000);
+
+        String encoded = sketch.encode();
+        HyperLogLog decoded = HyperLogLog.decode(encoded);
+
+        assertEquals(sketch.estimate(), decoded.estimate());
+        assertEquals(encoded, decoded.encode());
+    }
+
+    @Test
+    void decodesMissingTextAsEmpty() {
+        assertEquals(0, HyperLogLog.decode(null).estimate());
+        assertEquals(0, HyperLogLog.decode("").estimate());
+    }
+
+    @Test
+    void rejectsInvalidEncodings() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.decode("AAAAAA=="));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.decode("//8B"));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.decode("not base64!"));
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("client-" + i);
+        }
+        return sketch;
+    }
+}
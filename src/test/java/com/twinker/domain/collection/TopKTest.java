@@ -0,0 +1,112 @@
+package com.twinker.domain.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link TopK}, checking the Space-Saving guarantees against the
+ * exact totals of the same stream.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.domain.collection.TopK
+ */
+class TopKTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void rejectsInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK<String>(0));
+    }
+
+    @Test
+    void countsExactlyWhileKeysFit() {
+        TopK<String> topK = new TopK<>(4);
+        topK.add("a", 1);
+        topK.add("b", 5);
+        topK.add("c", 2.5);
+        topK.add("a", 3);
+        topK.add("d", 0.5);
+
+        List<TopK.Entry<String>> top = topK.top(10);
+
+        assertEquals(4, topK.size());
+        assertEquals(List.of("b", "a", "c", "d"), keys(top));
+        assertEquals(5, top.get(0).count(), DELTA);
+        assertEquals(4, top.get(1).count(), DELTA);
+        for (TopK.Entry<String> entry : top) {
+            assertEquals(0, entry.error(), DELTA);
+        }
+        assertEquals(List.of("b", "a"), keys(topK.top(2)));
+    }
+
+    @Test
+    void keepsHeavyHittersWithinTheirError() {
+        int capacity = 20;
+        TopK<Integer> topK = new TopK<>(capacity);
+        Map<Integer, Double> exact = new HashMap<>();
+        Random random = new Random(42);
+        double total = 0;
+
+        // A skewed stream: a few heavy keys hidden among many light ones.
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(10) < 4 ? random.nextInt(5) : 100 + random.nextInt(5_000);
+            double weight = 1 + random.nextInt(3);
+            topK.add(key, weight);
+            exact.merge(key, weight, Double::sum);
+            total += weight;
+        }
+
+        List<TopK.Entry<Integer>> top = topK.top(capacity);
+        Map<Integer, TopK.Entry<Integer>> counted = new HashMap<>();
+        for (TopK.Entry<Integer> entry : top) {
+            counted.put(entry.key(), entry);
+            double real = exact.get(entry.key());
+            assertTrue(entry.count() >= real - DELTA, "Count underestimated for " + entry.key());
+            assertTrue(entry.count() - entry.error() <= real + DELTA, "Overestimate beyond error for " + entry.key());
+        }
+
+        double threshold = total / capacity;
+        exact.forEach((key, weight) -> {
+            if (weight > threshold) assertTrue(counted.containsKey(key), "Heavy key " + key + " was dropped");
+        });
+        assertEquals(Set.of(0, 1, 2, 3, 4), new HashSet<>(keys(topK.top(5))));
+    }
+
+    @Test
+    void topIsSortedHeaviestFirst() {
+        TopK<Integer> topK = new TopK<>(8);
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000; i++) {
+            topK.add(random.nextInt(30), random.nextDouble());
+        }
+
+        List<TopK.Entry<Integer>> top = topK.top(8);
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).count() >= top.get(i).count());
+        }
+    }
+
+    @Test
+    void largestSelectsTheHighestValues() {
+        Map<String, Number> totals = new HashMap<>();
+        totals.put("a", 3);
+        totals.put("b", 10.5);
+        totals.put("c", 1L);
+        totals.put("d", 7);
+        totals.put("e", 4.25);
+
+        List<TopK.Entry<String>> largest = TopK.largest(totals, 3);
+
+        assertEquals(List.of("b", "d", "e"), keys(largest));
+        assertEquals(10.5, largest.get(0).count(), DELTA);
+        assertEquals(List.of("b", "d", "e", "a", "c"), keys(TopK.largest(totals, 10)));
+        assertTrue(TopK.largest(totals, 0).isEmpty());
+    }
+
+    private static <K> List<K> keys(List<TopK.Entry<K>> entries) {
+        return entries.stream().map(TopK.Entry::key).toList();
+    }
+}
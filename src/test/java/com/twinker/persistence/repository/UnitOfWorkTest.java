@@ -0,0 +1,190 @@
+package com.twinker.persistence.repository;
+
+import com.twinker.data.config.DataConfig;
+import com.twinker.domain.entity.Client;
+import com.twinker.persistence.utils.CsvHandler;
+import com.twinker.persistence.utils.EntityMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Tests for the journal of {@link UnitOfWork}: replaying a journal left
+ * behind by an interrupted commit, and refusing to commit while one cannot
+ * be replayed.
+ *
+ * <p>
+ * The journal lives at the configured path, but every row in it points at a
+ * table in a temporary directory, so no data file is touched. The tests are
+ * skipped if a journal is already pending at that path.
+ * </p>
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.repository.UnitOfWork
+ */
+class UnitOfWorkTest {
+    private static final File JOURNAL = new File(DataConfig.get("journal.path"));
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void requireNoPendingJournal() {
+        assumeFalse(JOURNAL.exists(), "A transaction journal is pending at " + JOURNAL);
+    }
+
+    @AfterEach
+    void deleteJournal() {
+        new CsvHandler(JOURNAL.getPath()).deleteCSV();
+    }
+
+    @Test
+    void recoverWithoutJournalDoesNothing() {
+        assertTrue(UnitOfWork.recover());
+        assertFalse(JOURNAL.exists());
+    }
+
+    @Test
+    void recoverReplaysInsertsUpdatesAndDeletes() {
+        String path = dir.resolve("clients.csv").toString();
+        Client kept = new Client("Ana", "111", "ana@mail.com");
+        Client updated = new Client("Luis", "222", "luis@mail.com");
+        Client deleted = new Client("Pedro", "333", "pedro@mail.com");
+        new CsvHandler(path).replaceCSV(rows(kept, updated, deleted));
+
+        Client renamed = new Client(updated.getId(), "Luis M", "222", "luis@mail.com");
+        Client inserted = new Client("Sara", "444", "sara@mail.com");
+        writeJournal(
+                journalRow(path, "I", inserted),
+                journalRow(path, "U", renamed),
+                new String[]{path, "D", deleted.getId()});
+
+        assertTrue(UnitOfWork.recover());
+        assertFalse(JOURNAL.exists());
+
+        Repository<Client> clients = repository(path);
+        assertEquals(3, clients.getAll().size());
+        assertEquals("Ana", clients.getById(kept.getId()).orElseThrow().getName());
+        assertEquals("Luis M", clients.getById(updated.getId()).orElseThrow().getName());
+        assertEquals("Sara", clients.getById(inserted.getId()).orElseThrow().getName());
+        assertTrue(clients.getById(deleted.getId()).isEmpty());
+    }
+
+    @Test
+    void recoverIsIdempotent() {
+        String path = dir.resolve("clients.csv").toString();
+        Client client = new Client("Ana", "111", "ana@mail.com");
+        new CsvHandler(path).replaceCSV(List.of());
+
+        // A crash after the replay but before the journal was deleted
+        // replays the same rows again.
+        writeJournal(journalRow(path, "I", client));
+        assertTrue(UnitOfWork.recover());
+        writeJournal(journalRow(path, "I", client));
+        assertTrue(UnitOfWork.recover());
+
+        Repository<Client> clients = repository(path);
+        assertEquals(1, clients.getAll().size());
+        assertEquals("Ana", clients.getById(client.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void recoverKeepsAJournalItCannotReplay() {
+        String path = dir.resolve("missing").resolve("clients.csv").toString();
+        writeJournal(journalRow(path, "I", new Client("Ana", "111", "ana@mail.com")));
+
+        assertFalse(UnitOfWork.recover());
+        assertTrue(JOURNAL.exists());
+    }
+
+    @Test
+    void commitReplaysAPendingJournalFirst() {
+        String path = dir.resolve("clients.csv").toString();
+        new CsvHandler(path).replaceCSV(List.of());
+        Repository<Client> clients = repository(path);
+        clients.getAll();
+
+        Client pending = new Client("Ana", "111", "ana@mail.com");
+        writeJournal(journalRow(path, "I", pending));
+        Client committed = new Client("Luis", "222", "luis@mail.com");
+        UnitOfWork unitOfWork = new UnitOfWork();
+        unitOfWork.insert(clients, committed);
+        unitOfWork.commit();
+
+        assertFalse(JOURNAL.exists());
+        assertTrue(clients.getById(pending.getId()).isPresent());
+        assertTrue(clients.getById(committed.getId()).isPresent());
+    }
+
+    @Test
+    void commitRefusesToRunWhileAJournalIsPending() {
+        String path = dir.resolve("clients.csv").toString();
+        new CsvHandler(path).replaceCSV(List.of());
+        Repository<Client> clients = repository(path);
+        String unreachable = dir.resolve("missing").resolve("clients.csv").toString();
+        writeJournal(journalRow(unreachable, "I", new Client("Ana", "111", "ana@mail.com")));
+
+        Client client = new Client("Luis", "222", "luis@mail.com");
+        UnitOfWork unitOfWork = new UnitOfWork();
+        unitOfWork.insert(clients, client);
+        List<String> hooks = new ArrayList<>();
+        unitOfWork.afterCommit(() -> hooks.add("run"));
+
+        assertThrows(IllegalStateException.class, unitOfWork::commit);
+        assertTrue(JOURNAL.exists());
+        assertTrue(clients.getById(client.getId()).isEmpty());
+        assertEquals(List.of(), hooks);
+    }
+
+    @Test
+    void commitRunsHooksAndDeletesTheJournal() {
+        String path = dir.resolve("clients.csv").toString();
+        new CsvHandler(path).replaceCSV(List.of());
+        Repository<Client> clients = repository(path);
+        Client client = new Client("Ana", "111", "ana@mail.com");
+
+        UnitOfWork unitOfWork = new UnitOfWork();
+        unitOfWork.insert(clients, client);
+        List<String> hooks = new ArrayList<>();
+        unitOfWork.afterCommit(() -> hooks.add("run"));
+        unitOfWork.commit();
+
+        assertFalse(JOURNAL.exists());
+        assertEquals(List.of("run"), hooks);
+        assertEquals(client.getName(), repository(path).getById(client.getId()).orElseThrow().getName());
+    }
+
+    private static Repository<Client> repository(String path) {
+        return new Repository<>(path, Client.class) { };
+    }
+
+    private static void writeJournal(String[]... rows) {
+        assertTrue(new CsvHandler(JOURNAL.getPath()).replaceCSV(List.of(rows)));
+    }
+
+    private static String[] journalRow(String path, String operation, Client client) {
+        String[] data = EntityMapper.entityToArray(client);
+        String[] row = new String[data.length + 2];
+        row[0] = path;
+        row[1] = operation;
+        System.arraycopy(data, 0, row, 2, data.length);
+        return row;
+    }
+
+    private static List<String[]> rows(Client... clients) {
+        List<String[]> rows = new ArrayList<>();
+        for (Client client : clients) {
+            rows.add(EntityMapper.entityToArray(client));
+        }
+        return rows;
+    }
+}
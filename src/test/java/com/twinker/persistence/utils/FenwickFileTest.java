@@ -0,0 +1,187 @@
+package com.twinker.persistence.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link FenwickFile}, checking its sums against a plain array of
+ * the same values, before and after the tree is reloaded from disk.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.FenwickFile
+ */
+class FenwickFileTest {
+    private static final double DELTA = 1e-6;
+    private static final long BASE = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void emptyTreeSumsZero() {
+        FenwickFile tree = tree();
+
+        assertEquals(0, tree.count());
+        assertEquals(0, tree.fingerprint());
+        assertEquals(0, tree.prefix(BASE), DELTA);
+        assertEquals(0, tree.sum(0, Long.MAX_VALUE / 2), DELTA);
+    }
+
+    @Test
+    void sumsMatchAPlainArray() {
+        FenwickFile tree = tree();
+        double[] values = new double[300];
+        Random random = new Random(3);
+
+        tree.add(BASE, 1.5);
+        values[0] += 1.5;
+        for (int i = 0; i < 2_000; i++) {
+            int offset = random.nextInt(values.length);
+            double value = random.nextInt(10_000) / 100.0;
+            tree.add(BASE + offset, value);
+            values[offset] += value;
+        }
+
+        assertEquals(BASE, tree.base());
+        assertEquals(2_001, tree.count());
+        assertSums(values, tree);
+    }
+
+    @Test
+    void growsForKeysBeyondItsCapacity() {
+        FenwickFile tree = tree();
+        double[] values = new double[1_000];
+
+        // Each key past the capacity doubles it, keeping the earlier sums.
+        for (int offset : new int[]{0, 1, 2, 5, 9, 100, 511, 512, 999}) {
+            tree.add(BASE + offset, offset + 0.25);
+            values[offset] += offset + 0.25;
+            assertSums(values, tree);
+        }
+    }
+
+    @Test
+    void ignoresKeysOutsideTheTree() {
+        FenwickFile tree = tree();
+        tree.add(BASE, 10);
+        tree.add(BASE + 3, 5);
+
+        assertEquals(0, tree.prefix(BASE - 1), DELTA);
+        assertEquals(15, tree.prefix(BASE + 1_000), DELTA);
+        assertEquals(0, tree.sum(BASE + 2, BASE + 1), DELTA);
+    }
+
+    @Test
+    void rejectsKeysBeforeTheBase() {
+        FenwickFile tree = tree();
+        tree.add(BASE, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> tree.add(BASE - 1, 1));
+    }
+
+    @Test
+    void resetBuildsTheTreeFromValues() {
+        FenwickFile tree = tree();
+        tree.add(BASE - 50, 99);
+        double[] values = {4, 0, 2.5, 7, 1, 0, 3.75};
+
+        tree.reset(BASE, values, 5, 1234);
+
+        assertEquals(BASE, tree.base());
+        assertEquals(5, tree.count());
+        assertEquals(1234, tree.fingerprint());
+        assertSums(values, tree);
+
+        // A reset tree keeps growing from its capacity.
+        double[] grown = new double[20];
+        System.arraycopy(values, 0, grown, 0, values.length);
+        tree.add(BASE + 19, 2);
+        grown[19] += 2;
+        assertSums(grown, tree);
+    }
+
+    @Test
+    void reloadsFromDisk() {
+        FenwickFile tree = tree();
+        double[] values = new double[40];
+        for (int offset = 0; offset < values.length; offset += 3) {
+            tree.add(BASE + offset, offset * 1.1);
+            values[offset] += offset * 1.1;
+        }
+        // Both the whole file and single nodes are rewritten along the way.
+        tree.add(BASE + 2, 0.5);
+        values[2] += 0.5;
+
+        FenwickFile reloaded = tree();
+
+        assertEquals(tree.base(), reloaded.base());
+        assertEquals(tree.count(), reloaded.count());
+        assertEquals(tree.fingerprint(), reloaded.fingerprint());
+        assertSums(values, reloaded);
+    }
+
+    @Test
+    void discardsATruncatedFile() throws IOException {
+        FenwickFile tree = tree();
+        for (int offset = 0; offset < 10; offset++) {
+            tree.add(BASE + offset, 1);
+        }
+        Path file = dir.resolve("bills.csv.fenwick");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        FenwickFile reloaded = tree();
+
+        assertEquals(0, reloaded.count());
+        assertEquals(0, reloaded.prefix(BASE + 10), DELTA);
+    }
+
+    @Test
+    void fingerprintTracksKeysAndValues() {
+        FenwickFile first = new FenwickFile(dir.resolve("first.csv").toString());
+        FenwickFile second = new FenwickFile(dir.resolve("second.csv").toString());
+        FenwickFile moved = new FenwickFile(dir.resolve("moved.csv").toString());
+
+        first.add(BASE, 10.25);
+        first.add(BASE + 1, 3);
+        second.add(BASE, 10.25);
+        second.add(BASE + 1, 3);
+        moved.add(BASE, 10.25);
+        moved.add(BASE + 2, 3);
+
+        assertEquals(FenwickFile.fingerprint(BASE, 10.25) + FenwickFile.fingerprint(BASE + 1, 3), first.fingerprint());
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertNotEquals(first.fingerprint(), moved.fingerprint());
+        assertNotEquals(FenwickFile.fingerprint(BASE, 10.25), FenwickFile.fingerprint(BASE, 10.26));
+    }
+
+    private FenwickFile tree() {
+        return new FenwickFile(dir.resolve("bills.csv").toString());
+    }
+
+    private static void assertSums(double[] values, FenwickFile tree) {
+        double prefix = 0;
+        for (int offset = 0; offset < values.length; offset++) {
+            prefix += values[offset];
+            assertEquals(prefix, tree.prefix(BASE + offset), DELTA, "Prefix up to " + offset);
+        }
+
+        for (int from = 0; from < values.length; from += 7) {
+            for (int to = from; to < values.length; to += 11) {
+                double sum = 0;
+                for (int offset = from; offset <= to; offset++) {
+                    sum += values[offset];
+                }
+                assertEquals(sum, tree.sum(BASE + from, BASE + to), DELTA, "Sum from " + from + " to " + to);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.twinker.persistence.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MappedCsvReader}, checking its rows against
+ * {@link BufferedReader} and {@link String#split(String)}, and its numeric
+ * parsers against {@link Integer#parseInt} and {@link Double#parseDouble}.
+ *
+ * @author Twinker Development Team
+ * @see com.twinker.persistence.utils.MappedCsvReader
+ */
+class MappedCsvReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsLinesAndColumnsLikeStringSplit() throws IOException {
+        String content = "a,b,c\nd,,f\r\ng,h,,\r\n\ni\rj,k\n,,\nlast,row";
+
+        assertEquals(expectedRows(content), sequentialRows(write(content)));
+    }
+
+    @Test
+    void readsOnlyTheRowsOfARange() throws IOException {
+        String content = "first,1\nsecond,2\nthird,3\n";
+        MappedCsvReader reader = new MappedCsvReader(write(content).toString());
+        List<String> rows = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+
+        reader.forEach(8, 17, (record, offset) -> {
+            rows.add(record.get(0));
+            offsets.add(offset);
+        });
+
+        assertEquals(List.of("second"), rows);
+        assertEquals(List.of(8L), offsets);
+    }
+
+    @Test
+    void parallelChunksMatchTheSequentialScan() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            content.append(i).append(',').append("name-").append(random.nextInt(1_000))
+                    .append(',').append(random.nextInt(100_000) / 100.0);
+            if (random.nextInt(20) == 0) content.append(',');
+            content.append(random.nextInt(4) == 0 ? "\r\n" : "\n");
+            if (random.nextInt(50) == 0) content.append('\n');
+        }
+        content.append("tail,without,newline");
+        Path file = write(content.toString());
+        List<List<String>> expected = expectedRows(content.toString());
+        MappedCsvReader reader = new MappedCsvReader(file.toString());
+
+        // Chunks smaller than a line, a few lines, and the whole file.
+        for (long chunkSize : new long[]{1, 7, 64, 4_096, Long.MAX_VALUE}) {
+            assertEquals(expected, reader.readParallel(MappedCsvReaderTest::columns, chunkSize), "Chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void parallelScanSkipsNullRows() throws IOException {
+        Path file = write("keep,1\nskip,2\nkeep,3\n");
+
+        List<Integer> rows = new MappedCsvReader(file.toString())
+                .readParallel(record -> record.get(0).equals("skip") ? null : record.integer(1), 1);
+
+        assertEquals(List.of(1, 3), rows);
+    }
+
+    @Test
+    void missingFileReadsNothing() {
+        MappedCsvReader reader = new MappedCsvReader(dir.resolve("missing.csv").toString());
+
+        assertEquals(List.of(), reader.readParallel(MappedCsvReaderTest::columns, 16));
+        assertEquals(List.of(), sequentialRows(dir.resolve("missing.csv")));
+    }
+
+    @Test
+    void integerFastPathMatchesParseInt() throws IOException {
+        String[] values = {"0", "7", "-7", "+42", "007", "123456789", "-123456789",
+                "2147483647", "-2147483648", "1000000000"};
+
+        List<Integer> parsed = parse(values, record -> record.integer(0));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Integer.parseInt(values[i]), parsed.get(i), values[i]);
+        }
+    }
+
+    @Test
+    void integerRejectsWhatParseIntRejects() throws IOException {
+        for (String value : new String[]{"12a", "-", "+", "2147483648", "1.5"}) {
+            assertThrows(NumberFormatException.class, () -> parse(new String[]{value}, record -> record.integer(0)), value);
+        }
+    }
+
+    @Test
+    void decimalFastPathMatchesParseDouble() throws IOException {
+        String[] values = {"0", "-0", "0.1", "0.2", "1250.5", "-3.75", "19.99", "000123.4500",
+                ".5", "5.", "123456789012345", "1234567890123456", "0.30000000000000004",
+                "0.0000000000000000000001", "1e3", "-2.5E-2", "99999999.99"};
+
+        List<Double> parsed = parse(values, record -> record.decimal(0));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.parseDouble(values[i]), parsed.get(i), values[i]);
+        }
+    }
+
+    @Test
+    void decimalFastPathIsCorrectlyRounded() throws IOException {
+        Random random = new Random(5);
+        String[] values = new String[2_000];
+        for (int i = 0; i < values.length; i++) {
+            long cents = random.nextLong(10_000_000_000L) - 5_000_000_000L;
+            values[i] = random.nextBoolean() ? Long.toString(cents) : cents / 100 + "." + String.format("%02d", Math.abs(cents % 100));
+        }
+
+        List<Double> parsed = parse(values, record -> record.decimal(0));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.parseDouble(values[i]), parsed.get(i), values[i]);
+        }
+    }
+
+    @Test
+    void decimalRejectsWhatParseDoubleRejects() throws IOException {
+        for (String value : new String[]{"1.2.3", "-", "abc", "1-5"}) {
+            assertThrows(NumberFormatException.class, () -> parse(new String[]{value}, record -> record.decimal(0)), value);
+        }
+    }
+
+    @Test
+    void missingColumnsReadAsZeroOrNull() throws IOException {
+        List<Object[]> rows = parse(new String[]{"text," + CsvRecord.NULL},
+                record -> new Object[]{record.text(0), record.text(1), record.text(5), record.integer(5), record.decimal(5)});
+
+        assertArrayEquals(new Object[]{"text", null, null, 0, 0.0}, rows.getFirst());
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = dir.resolve("data-" + System.nanoTime() + ".csv");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private <R> List<R> parse(String[] lines, Function<CsvRecord, R> mapper) throws IOException {
+        Path file = write(String.join("\n", lines) + "\n");
+        List<R> rows = new ArrayList<>();
+        new MappedCsvReader(file.toString()).forEach(record -> rows.add(mapper.apply(record)));
+        return rows;
+    }
+
+    private static List<List<String>> sequentialRows(Path file) {
+        List<List<String>> rows = new ArrayList<>();
+        new MappedCsvReader(file.toString()).forEach(record -> rows.add(columns(record)));
+        return rows;
+    }
+
+    private static List<List<String>> expectedRows(String content) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows.add(Arrays.asList(line.split(",")));
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> columns(CsvRecord record) {
+        List<String> columns = new ArrayList<>(record.size());
+        for (int i = 0; i < record.size(); i++) {
+            columns.add(record.get(i));
+        }
+        return columns;
+    }
+}